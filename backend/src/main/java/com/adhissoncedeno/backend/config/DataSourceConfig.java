@@ -0,0 +1,115 @@
+package com.adhissoncedeno.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The primary pool is built from the usual {@code spring.datasource.*} properties. JPA, Flyway
+ * and the rest of the application get it behind a LazyConnectionDataSourceProxy, so a
+ * transaction that never runs a statement (a read answered from the public feed snapshot or the
+ * second-level cache) does not check out a connection. With {@code replicaDataSource.urls} set,
+ * the proxy sits in front of the routing data source instead, which also needs it to route, and
+ * read-only transactions stop filling the second-level cache (see ReplicaCacheModeJpaDialect).
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${replicaDataSource.urls:}")
+    private List<String> urls;
+
+    @Value("${replicaDataSource.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${replicaDataSource.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${replicaDataSource.maximumPoolSize:10}")
+    private int maximumPoolSize;
+
+    @Value("${replicaDataSource.readYourWritesWindow:5000}")
+    private long readYourWritesWindow;
+
+    @Value("${replicaDataSource.maxTrackedWriters:100000}")
+    private long maxTrackedWriters;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty("replicaDataSource.urls")
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                        DataSourceProperties properties,
+                                                        MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            // A write that reaches a replica by mistake fails instead of diverging from the primary.
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                Duration.ofMillis(readYourWritesWindow), maxTrackedWriters, meterRegistry);
+    }
+
+    // Replaces the adapter Spring Boot would create, with the same settings, only to swap the dialect.
+    @Bean
+    @ConditionalOnProperty("replicaDataSource.urls")
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        HibernateJpaDialect jpaDialect = new ReplicaCacheModeJpaDialect();
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return jpaDialect;
+            }
+        };
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (StringUtils.hasText(properties.getDatabasePlatform())) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        ReadWriteRoutingDataSource routing = routingDataSource.getIfAvailable();
+        return new LazyConnectionDataSourceProxy(routing != null ? routing : primaryDataSource);
+    }
+}
@@ -0,0 +1,44 @@
+package com.adhissoncedeno.backend.config;
+
+import graphql.GraphqlErrorBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.execution.SubscriptionExceptionResolver;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.Exceptions;
+
+import java.util.Map;
+
+@Configuration
+public class GraphQlConfig {
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQueries(PersistedQueryProvider persistedQueryProvider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(persistedQueryProvider));
+    }
+
+    // Subscribers dropped for falling behind (see PublicPostEvents) get a code to react to.
+    @Bean
+    public SubscriptionExceptionResolver slowConsumerResolver() {
+        return SubscriptionExceptionResolver.forSingleError(exception -> Exceptions.isOverflow(exception)
+                ? GraphqlErrorBuilder.newError()
+                        .message("Subscriber too slow, reload and subscribe again")
+                        .extensions(Map.of("code", "SLOW_CONSUMER"))
+                        .build()
+                : null);
+    }
+
+    // Ahead of the auto-configured route, which answers GET on the GraphQL path with 405.
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RouterFunction<ServerResponse> graphQlGetRouterFunction(GraphQlGetHandler handler,
+                                                                   @Value("${spring.graphql.path:/graphql}") String path) {
+        return RouterFunctions.route().GET(path, handler::handle).build();
+    }
+}
@@ -0,0 +1,300 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.services.PublicFeedSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import graphql.ExecutionResult;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.language.AstPrinter;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.Node;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * GraphQL over HTTP GET for query operations, with conditional responses for anonymous callers.
+ * Anonymous responses get a strong ETag plus a short public {@code Cache-Control}; a matching
+ * {@code If-None-Match} is answered with 304 and no body. Queries that only read the public feed
+ * snapshot get an ETag built from the snapshot version and the query, so a revalidation is
+ * answered before the query runs. Any other query runs and its ETag is the hash of the response
+ * body, which holds whatever changed the data. Mutations sent over GET are rejected before
+ * execution.
+ */
+@Component
+public class GraphQlGetHandler {
+
+    private static final String GET_REQUEST = GraphQlGetHandler.class.getName() + ".get";
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {
+    };
+
+    // Root fields answered from the public feed snapshot while it is available.
+    private static final Set<String> SNAPSHOT_FIELDS = Set.of("findPublicPosts", "findPublicPostsPage", "__typename");
+
+    // Snapshot versions are counted per instance, so the ETags built from them name the instance.
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Autowired
+    private WebGraphQlHandler webGraphQlHandler;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PublicFeedSnapshot publicFeed;
+
+    @Value("${httpCache.maxAge:5}")
+    private long maxAge;
+
+    public ServerResponse handle(ServerRequest serverRequest) {
+        Optional<String> query = serverRequest.param("query");
+        Optional<String> operationName = serverRequest.param("operationName");
+        Optional<String> variables = serverRequest.param("variables");
+        Optional<String> extensions = serverRequest.param("extensions");
+
+        Map<String, Object> body = new HashMap<>();
+        try {
+            variables.ifPresent(json -> body.put("variables", readMap(json)));
+            extensions.ifPresent(json -> body.put("extensions", readMap(json)));
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().body(errorBody(e.getMessage()));
+        }
+        if (query.isPresent()) {
+            body.put("query", query.get());
+        } else if (extensions.isPresent() && ((Map<?, ?>) body.get("extensions")).containsKey("persistedQuery")) {
+            body.put("query", PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+        } else {
+            return ServerResponse.badRequest().body(errorBody("Missing query parameter"));
+        }
+        operationName.ifPresent(name -> body.put("operationName", name));
+
+        boolean anonymous = isAnonymous(SecurityContextHolder.getContext().getAuthentication());
+        List<String> ifNoneMatch = serverRequest.headers().header(HttpHeaders.IF_NONE_MATCH);
+
+        String snapshotEtag = anonymous && query.isPresent()
+                ? snapshotEtag(query.get(), operationName.orElse(null), body.get("variables"))
+                : null;
+        if (snapshotEtag != null && matches(ifNoneMatch, snapshotEtag)) {
+            return notModified(snapshotEtag);
+        }
+
+        WebGraphQlRequest request = new WebGraphQlRequest(serverRequest.uri(),
+                serverRequest.headers().asHttpHeaders(), new LinkedMultiValueMap<>(),
+                serverRequest.remoteAddress().orElse(null), serverRequest.attributes(), body,
+                serverRequest.servletRequest().getRequestId(), serverRequest.servletRequest().getLocale());
+        request.configureExecutionInput((input, builder) ->
+                builder.graphQLContext(Map.of(GET_REQUEST, true)).build());
+
+        CompletableFuture<ServerResponse> response = webGraphQlHandler.handleRequest(request)
+                .map(graphQlResponse -> {
+                    byte[] responseBody = write(graphQlResponse.toMap());
+                    // Only complete, error-free anonymous responses are cacheable.
+                    if (!anonymous || !graphQlResponse.getErrors().isEmpty()) {
+                        return ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .headers(headers -> headers.putAll(graphQlResponse.getResponseHeaders()))
+                                .varyBy(HttpHeaders.AUTHORIZATION)
+                                .cacheControl(CacheControl.noStore())
+                                .body(responseBody);
+                    }
+                    String etag = snapshotEtag != null ? snapshotEtag : etag(responseBody);
+                    if (matches(ifNoneMatch, etag)) {
+                        return notModified(etag);
+                    }
+                    return ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .headers(headers -> headers.putAll(graphQlResponse.getResponseHeaders()))
+                            .varyBy(HttpHeaders.AUTHORIZATION)
+                            .eTag(etag)
+                            .cacheControl(publicCacheControl())
+                            .body(responseBody);
+                })
+                .toFuture();
+        return ServerResponse.async(response);
+    }
+
+    private ServerResponse notModified(String etag) {
+        return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(publicCacheControl())
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .build();
+    }
+
+    // The version is read before the availability check and before the query runs: a change
+    // made meanwhile moves the version past this ETag, so it can only miss, never match stale
+    // content. Returns null when the query reads anything the snapshot version does not follow.
+    private String snapshotEtag(String query, String operationName, Object variables) {
+        long version = publicFeed.getVersion();
+        if (!publicFeed.isAvailable()) {
+            return null;
+        }
+        Document document;
+        try {
+            document = Parser.parse(query);
+        } catch (InvalidSyntaxException e) {
+            return null;
+        }
+        if (!readsOnlySnapshot(document, operationName)) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((instanceId + ":" + version + ":" + operationName + ":").getBytes(StandardCharsets.UTF_8));
+            digest.update(AstPrinter.printAstCompact(document).getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(variables));
+            return quote(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static boolean readsOnlySnapshot(Document document, String operationName) {
+        List<OperationDefinition> operations = document.getDefinitionsOfType(OperationDefinition.class);
+        OperationDefinition operation = null;
+        for (OperationDefinition candidate : operations) {
+            if (operationName == null ? operations.size() == 1 : operationName.equals(candidate.getName())) {
+                operation = candidate;
+            }
+        }
+        if (operation == null || operation.getOperation() != OperationDefinition.Operation.QUERY) {
+            return false;
+        }
+        for (Selection<?> selection : operation.getSelectionSet().getSelections()) {
+            if (!(selection instanceof Field field) || !SNAPSHOT_FIELDS.contains(field.getName())) {
+                return false;
+            }
+        }
+        // Authors come from the users, whose changes on other instances the version does not see.
+        return !selects(document, "author");
+    }
+
+    private static boolean selects(Node<?> node, String fieldName) {
+        if (node instanceof Field field && field.getName().equals(fieldName)) {
+            return true;
+        }
+        for (Node<?> child : node.getChildren()) {
+            if (selects(child, fieldName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Object> readMap(String json) {
+        try {
+            return objectMapper.readValue(json, MAP);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid JSON in request parameters");
+        }
+    }
+
+    private CacheControl publicCacheControl() {
+        return CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic();
+    }
+
+    private static boolean isAnonymous(Authentication authentication) {
+        return authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken;
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String value = candidate.trim();
+                if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private byte[] write(Map<String, Object> response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not write the GraphQL response", e);
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            return quote(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String quote(byte[] digest) {
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+    }
+
+    private static Map<String, Object> errorBody(String message) {
+        return Map.of("errors", List.of(Map.of("message", message)));
+    }
+
+    /**
+     * Rejects mutations and subscriptions that arrive over GET. Kept apart from the handler,
+     * which depends on the GraphQL setup that this instrumentation is part of.
+     */
+    @Component
+    public static class QueriesOnlyInstrumentation implements Instrumentation {
+
+        @Override
+        public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+                InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+            OperationDefinition.Operation operation = parameters.getExecutionContext().getOperationDefinition().getOperation();
+            if (operation != OperationDefinition.Operation.QUERY
+                    && parameters.getExecutionContext().getGraphQLContext().getOrDefault(GET_REQUEST, false)) {
+                throw new AbortExecutionException(List.of(GraphqlErrorBuilder.newError()
+                        .message("Only queries can be sent with GET, use POST for " + operation.name().toLowerCase())
+                        .extensions(Map.of("code", "METHOD_NOT_ALLOWED"))
+                        .build()));
+            }
+            return null;
+        }
+    }
+}
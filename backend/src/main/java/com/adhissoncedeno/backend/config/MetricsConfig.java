@@ -0,0 +1,33 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.metrics.GraphQlOperationObservationConvention;
+import com.adhissoncedeno.backend.metrics.StatementCounter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Operation names come from the client; past this many distinct names new ones are dropped.
+    private static final int MAX_OPERATION_NAMES = 100;
+
+    @Bean
+    public GraphQlOperationObservationConvention graphQlOperationObservationConvention() {
+        return new GraphQlOperationObservationConvention();
+    }
+
+    @Bean
+    public MeterFilter graphQlOperationNameLimit() {
+        return MeterFilter.maximumAllowableTags("graphql.request", "graphql.operation.name",
+                MAX_OPERATION_NAMES, MeterFilter.deny());
+    }
+
+    // Only one statement inspector can be set; a configured one (as in some tests) wins.
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+}
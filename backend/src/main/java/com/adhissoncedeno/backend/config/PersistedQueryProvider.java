@@ -0,0 +1,177 @@
+package com.adhissoncedeno.backend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ErrorClassification;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryError;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Automatic persisted queries (the Apollo protocol) plus a cache of parsed and validated
+ * documents. Every document is keyed by the SHA-256 of its text: clients that send
+ * {@code extensions.persistedQuery.sha256Hash} can omit the text once the server has seen it,
+ * and plain requests are hashed here, so either way a known document skips parsing and
+ * validation. In allow-list mode only the documents of the configured manifest run and the
+ * text sent by the client is ignored.
+ */
+@Component
+public class PersistedQueryProvider implements PreparsedDocumentProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistedQueryProvider.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${persistedQueries.cacheSize:1000}")
+    private long cacheSize;
+
+    @Value("${persistedQueries.allowListOnly:false}")
+    private boolean allowListOnly;
+
+    @Value("${persistedQueries.allowList:classpath:graphql/persisted-queries.json}")
+    private Resource allowListResource;
+
+    private Cache<String, PreparsedDocumentEntry> documents;
+
+    private Map<String, String> allowList = Map.of();
+
+    @PostConstruct
+    void init() throws IOException {
+        documents = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql.documents");
+        if (allowListOnly) {
+            allowList = loadAllowList();
+            logger.info("Persisted query allow-list loaded with {} operations", allowList.size());
+        }
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        String query = executionInput.getQuery();
+        if (query == null || query.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+            query = null;
+        }
+        String requestedHash = requestedHash(executionInput);
+        if (requestedHash != null && query != null && !requestedHash.equals(sha256(query))) {
+            return error(new PersistedQueryIdInvalid(requestedHash), requestedHash, "PERSISTED_QUERY_ID_INVALID");
+        }
+        String hash = requestedHash != null ? requestedHash : query != null ? sha256(query) : null;
+        if (hash == null) {
+            return error(new PersistedQueryNotFound(null), null, "PERSISTED_QUERY_NOT_FOUND");
+        }
+
+        if (allowListOnly) {
+            query = allowList.get(hash);
+            if (query == null) {
+                return error("PersistedQueryNotAllowed", null, hash, "PERSISTED_QUERY_NOT_ALLOWED");
+            }
+        }
+
+        PreparsedDocumentEntry cached = documents.getIfPresent(hash);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (query == null) {
+            return error(new PersistedQueryNotFound(hash), hash, "PERSISTED_QUERY_NOT_FOUND");
+        }
+
+        String text = query;
+        PreparsedDocumentEntry entry = parseAndValidate.apply(executionInput.transform(builder -> builder.query(text)));
+        // Invalid documents are not kept, so they cannot push valid ones out of the cache.
+        if (!entry.hasErrors()) {
+            documents.put(hash, entry);
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    private static String requestedHash(ExecutionInput executionInput) {
+        Object persistedQuery = executionInput.getExtensions().get("persistedQuery");
+        if (persistedQuery instanceof Map<?, ?> map && map.get("sha256Hash") instanceof String hash) {
+            return hash.toLowerCase();
+        }
+        return null;
+    }
+
+    private static CompletableFuture<PreparsedDocumentEntry> error(PersistedQueryError error, String hash, String code) {
+        return error(error.getMessage(), error, hash, code);
+    }
+
+    // Apollo clients look at the message or at extensions.code to resend the query text.
+    private static CompletableFuture<PreparsedDocumentEntry> error(
+            String message, ErrorClassification type, String hash, String code) {
+        Map<String, Object> extensions = new HashMap<>();
+        extensions.put("code", code);
+        if (hash != null) {
+            extensions.put("persistedQueryId", hash);
+        }
+        GraphqlErrorBuilder<?> error = GraphqlErrorBuilder.newError().message(message).extensions(extensions);
+        if (type != null) {
+            error.errorType(type);
+        }
+        return CompletableFuture.completedFuture(new PreparsedDocumentEntry(error.build()));
+    }
+
+    // Apollo persisted query manifest: {"operations": [{"id": "<sha256>", "body": "<document>"}, ...]}
+    private Map<String, String> loadAllowList() throws IOException {
+        if (!allowListResource.exists()) {
+            throw new IllegalStateException("persistedQueries.allowListOnly is set but "
+                    + allowListResource.getDescription() + " does not exist");
+        }
+        JsonNode manifest;
+        try (InputStream input = allowListResource.getInputStream()) {
+            manifest = new ObjectMapper().readTree(input);
+        }
+        Map<String, String> operations = new HashMap<>();
+        for (JsonNode operation : manifest.path("operations")) {
+            String body = operation.path("body").asText();
+            String hash = sha256(body);
+            if (!hash.equalsIgnoreCase(operation.path("id").asText())) {
+                throw new IllegalStateException("Persisted query " + operation.path("name").asText()
+                        + " has id " + operation.path("id").asText() + " but its body hashes to " + hash);
+            }
+            operations.put(hash, body);
+        }
+        return Map.copyOf(operations);
+    }
+
+    static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
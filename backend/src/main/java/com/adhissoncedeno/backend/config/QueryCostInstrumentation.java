@@ -0,0 +1,191 @@
+package com.adhissoncedeno.backend.config;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLAppliedDirectiveArgument;
+import graphql.schema.GraphQLCompositeType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static cost and depth analysis of every operation, run after validation and before any
+ * resolver. Costs come from the {@code @cost} and {@code @listSize} directives of the schema:
+ * each object in the response costs 1, multiplied by the expected size of the lists that
+ * contain it, plus the {@code @cost} weight of the fields that declare one. Operations over
+ * the budget of the caller's role ({@code queryCost.budget.*}) or deeper than
+ * {@code queryCost.maxDepth} are rejected, and every computed cost is recorded in the
+ * {@code graphql.request.cost} summary.
+ */
+@Component
+public class QueryCostInstrumentation implements Instrumentation {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${queryCost.maxDepth:8}")
+    private int maxDepth;
+
+    @Value("${queryCost.defaultListSize:10}")
+    private long defaultListSize;
+
+    @Value("${queryCost.budget.anonymous:2000}")
+    private long anonymousBudget;
+
+    @Value("${queryCost.budget.user:5000}")
+    private long userBudget;
+
+    @Value("${queryCost.budget.admin:20000}")
+    private long adminBudget;
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        GraphQLSchema schema = parameters.getExecutionContext().getGraphQLSchema();
+        ExecutableNormalizedOperation operation = parameters.getExecutionContext().getNormalizedQueryTree().get();
+
+        int depth = depth(operation.getTopLevelFields());
+        if (depth > maxDepth) {
+            throw reject("Query depth " + depth + " exceeds the maximum of " + maxDepth,
+                    "QUERY_TOO_DEEP", Map.of("depth", depth, "maxDepth", maxDepth));
+        }
+
+        long cost = cost(schema, operation.getTopLevelFields(), null, List.of());
+        long budget = budget(SecurityContextHolder.getContext().getAuthentication());
+        boolean accepted = cost <= budget;
+        DistributionSummary.builder("graphql.request.cost")
+                .description("Static cost of the GraphQL operations, computed before execution")
+                .tag("outcome", accepted ? "accepted" : "rejected")
+                .register(meterRegistry)
+                .record(cost);
+        if (!accepted) {
+            throw reject("Query cost " + cost + " exceeds the budget of " + budget,
+                    "QUERY_TOO_COMPLEX", Map.of("cost", cost, "budget", budget));
+        }
+        return null;
+    }
+
+    private long cost(GraphQLSchema schema, List<ExecutableNormalizedField> fields,
+                      Long slicedSize, List<String> sizedFields) {
+        long total = 0;
+        for (ExecutableNormalizedField field : fields) {
+            if (field.getName().startsWith("__")) {
+                continue;
+            }
+            Long inherited = sizedFields.contains(field.getName()) ? slicedSize : null;
+            total = add(total, cost(schema, field, inherited));
+        }
+        return total;
+    }
+
+    private long cost(GraphQLSchema schema, ExecutableNormalizedField field, Long inheritedSize) {
+        GraphQLFieldDefinition definition = field.getFieldDefinitions(schema).get(0);
+        long weight = intArgument(definition.getAppliedDirective("cost"), "weight", 0);
+        if (!(GraphQLTypeUtil.unwrapAll(definition.getType()) instanceof GraphQLCompositeType)) {
+            return weight;
+        }
+
+        GraphQLAppliedDirective listSize = definition.getAppliedDirective("listSize");
+        long size = listSize(field, listSize);
+        List<String> sizedFields = stringsArgument(listSize, "sizedFields");
+        long multiplier;
+        if (!sizedFields.isEmpty()) {
+            // The size belongs to child lists, as in a connection whose edges depend on `first`.
+            multiplier = 1;
+        } else if (GraphQLTypeUtil.unwrapNonNull(definition.getType()) instanceof GraphQLList) {
+            multiplier = inheritedSize != null ? inheritedSize : size;
+        } else {
+            multiplier = 1;
+        }
+        long children = cost(schema, field.getChildren(), size, sizedFields);
+        return add(weight, multiply(multiplier, add(1, children)));
+    }
+
+    private long listSize(ExecutableNormalizedField field, GraphQLAppliedDirective listSize) {
+        for (String argument : stringsArgument(listSize, "slicingArguments")) {
+            Object value = field.getResolvedArguments().get(argument);
+            if (value instanceof Number number) {
+                return Math.max(0, number.longValue());
+            }
+            if (value instanceof Collection<?> values) {
+                return values.size();
+            }
+        }
+        return intArgument(listSize, "assumedSize", defaultListSize);
+    }
+
+    private static int depth(List<ExecutableNormalizedField> fields) {
+        int depth = 0;
+        for (ExecutableNormalizedField field : fields) {
+            if (!field.getName().startsWith("__")) {
+                depth = Math.max(depth, Math.max(field.getLevel(), depth(field.getChildren())));
+            }
+        }
+        return depth;
+    }
+
+    private long budget(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return anonymousBudget;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if ("ROLE_ADMIN".equals(authority.getAuthority())) {
+                return adminBudget;
+            }
+        }
+        return userBudget;
+    }
+
+    private static AbortExecutionException reject(String message, String code, Map<String, Object> details) {
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message(message)
+                .extensions(Map.of("code", code, "details", details))
+                .build();
+        return new AbortExecutionException(List.of(error));
+    }
+
+    private static long intArgument(GraphQLAppliedDirective directive, String name, long defaultValue) {
+        GraphQLAppliedDirectiveArgument argument = directive != null ? directive.getArgument(name) : null;
+        Object value = argument != null ? argument.getValue() : null;
+        return value instanceof Number number ? number.longValue() : defaultValue;
+    }
+
+    private static List<String> stringsArgument(GraphQLAppliedDirective directive, String name) {
+        GraphQLAppliedDirectiveArgument argument = directive != null ? directive.getArgument(name) : null;
+        List<String> value = argument != null ? argument.getValue() : null;
+        return value != null ? value : List.of();
+    }
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long multiply(long a, long b) {
+        return b != 0 && a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+}
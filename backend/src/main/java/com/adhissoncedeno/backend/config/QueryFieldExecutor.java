@@ -0,0 +1,120 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.metrics.StatementCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the root query resolvers off the request thread, so the fields of one GraphQL document
+ * (for example myPosts, findPublicPosts and findAllUsers) query the database concurrently
+ * instead of one after another. The caller's SecurityContext is copied to the task, the pool
+ * and its queue are bounded, and every field has a timeout
+ * ({@code queryExecutor.timeouts.<field>}, falling back to {@code queryExecutor.timeout}).
+ * A field that times out is interrupted, and its read-only transaction carries the same timeout,
+ * which Hibernate sets as the JDBC query timeout of every statement, so the pool thread is freed
+ * even when the driver ignores interrupts.
+ */
+@Component
+public class QueryFieldExecutor {
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${queryExecutor.threads:16}")
+    private int threads;
+
+    @Value("${queryExecutor.queueCapacity:200}")
+    private int queueCapacity;
+
+    @Value("${queryExecutor.timeout:10000}")
+    private long defaultTimeout;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolExecutor pool;
+
+    private Executor executor;
+
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("query-field-", 0).factory()
+                : new CustomizableThreadFactory("query-field-");
+        pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        executor = new DelegatingSecurityContextExecutor(StatementCounter.propagating(pool));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    public <T> CompletableFuture<T> submit(String field, Supplier<T> task) {
+        long timeout = timeout(field);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        // Transaction timeouts are in whole seconds; rounding up keeps orTimeout the one that fires.
+        transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeout + 999)));
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> running = new FutureTask<>(() -> {
+            try {
+                result.complete(transactionTemplate.execute(status -> task.get()));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, null);
+        try {
+            executor.execute(running);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Too many queries in progress, try again later", e));
+        }
+        result.orTimeout(timeout, TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+            if (error instanceof TimeoutException) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public long timeout(String field) {
+        return environment.getProperty("queryExecutor.timeouts." + field, Long.class, defaultTimeout);
+    }
+
+    public int getQueueSize() {
+        return pool.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
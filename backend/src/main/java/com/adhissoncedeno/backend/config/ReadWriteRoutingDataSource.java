@@ -0,0 +1,114 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replicas, in turn, and everything else to the primary.
+ * After a user commits a write, their reads go to the primary for {@code readYourWritesWindow},
+ * so they see their own changes while the replicas catch up. The decision is made when a
+ * statement first needs a connection, which only works behind a LazyConnectionDataSourceProxy:
+ * the transaction has been marked read-only by then.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Cache<Object, Boolean> recentWriters;
+
+    private final Counter toPrimary;
+    private final Counter toReplica;
+    private final Counter readYourWrites;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+                                      Duration readYourWritesWindow, long maxTrackedWriters,
+                                      MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(maxTrackedWriters)
+                .build();
+        toPrimary = route(meterRegistry, "primary", "write");
+        toReplica = route(meterRegistry, "replica", "read");
+        readYourWrites = route(meterRegistry, "primary", "read-your-writes");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                Object writer = currentUser();
+                if (writer != null) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            recentWriters.put(writer, Boolean.TRUE);
+                        }
+                    });
+                }
+            }
+            toPrimary.increment();
+            return PRIMARY;
+        }
+        Object reader = currentUser();
+        if (reader != null && recentWriters.getIfPresent(reader) != null) {
+            readYourWrites.increment();
+            return PRIMARY;
+        }
+        toReplica.increment();
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private static Object currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof CustomUserDetails userDetails && userDetails.getId() != null) {
+            return userDetails.getId();
+        }
+        return authentication.getName();
+    }
+
+    private static Counter route(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the read/write routing, by target and reason")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
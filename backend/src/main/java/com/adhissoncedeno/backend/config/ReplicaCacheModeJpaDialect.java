@@ -0,0 +1,28 @@
+package com.adhissoncedeno.backend.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps read-only transactions, which may run on a lagging replica, from putting what they load
+ * into the second-level cache; they still read from it. Only loads on the primary fill the cache,
+ * so a replica cannot leave a stale copy there until the entry expires.
+ */
+class ReplicaCacheModeJpaDialect extends HibernateJpaDialect {
+
+    // A property rather than Session.setCacheMode: EntityManager.find resolves the cache mode from
+    // the session properties and would ignore it.
+    private static final String STORE_MODE = "jakarta.persistence.cache.storeMode";
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        entityManager.setProperty(STORE_MODE, definition.isReadOnly() ? CacheStoreMode.BYPASS : CacheStoreMode.USE);
+        return transactionData;
+    }
+}
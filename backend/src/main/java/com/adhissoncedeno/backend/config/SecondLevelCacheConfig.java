@@ -0,0 +1,85 @@
+package com.adhissoncedeno.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regions of the Hibernate second-level cache, held in Caffeine through JCache. Every region is
+ * created here with its own size and time to live; Hibernate is told to fail on any other
+ * region, so a newly cached entity cannot end up in an unbounded cache. Each region publishes
+ * the usual Caffeine cache meters plus its hit ratio, under the name {@code hibernate.<region>}.
+ * Post is not cached: its updates and deletes are bulk statements, and each of those empties the
+ * whole region of the entity.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${secondLevelCache.users.maximumSize:10000}")
+    private long usersMaximumSize;
+
+    @Value("${secondLevelCache.users.expireAfterWrite:300000}")
+    private long usersExpireAfterWrite;
+
+    @Value("${secondLevelCache.usernames.maximumSize:10000}")
+    private long usernamesMaximumSize;
+
+    @Value("${secondLevelCache.usernames.expireAfterWrite:300000}")
+    private long usernamesExpireAfterWrite;
+
+    // A URI of its own: the default cache manager of the provider is shared by every
+    // application context in the JVM, and the regions would collide between them.
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+        createRegion(cacheManager, "users", usersMaximumSize, usersExpireAfterWrite);
+        createRegion(cacheManager, "usernames", usernamesMaximumSize, usernamesExpireAfterWrite);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private void createRegion(CacheManager cacheManager, String region, long maximumSize, long expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate stores its own disassembled copy of the state; copying it again on every read
+        // would only add cost.
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(expireAfterWrite)));
+        configuration.setNativeStatisticsEnabled(true);
+
+        com.github.benmanes.caffeine.cache.Cache<?, ?> cache = cacheManager.createCache(region, configuration)
+                .unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+        String name = "hibernate." + region;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of lookups served from the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+}
@@ -1,45 +1,115 @@
 package com.adhissoncedeno.backend.controllers;
 
+import com.adhissoncedeno.backend.config.QueryFieldExecutor;
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.dtos.request.PostOrderDTO;
 import com.adhissoncedeno.backend.model.dtos.request.PostRequestDTO;
+import com.adhissoncedeno.backend.model.dtos.response.DeletePostResultDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostConnectionDTO;
 import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PublicFeedStatsDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PublicPostChangeDTO;
+import com.adhissoncedeno.backend.model.dtos.response.UserResponseDTO;
+import com.adhissoncedeno.backend.model.enums.PostField;
 import com.adhissoncedeno.backend.security.CustomUserDetails;
 import com.adhissoncedeno.backend.services.PostService;
+import com.adhissoncedeno.backend.services.PublicFeedSnapshot;
+import com.adhissoncedeno.backend.services.PublicPostEvents;
+import com.adhissoncedeno.backend.services.UserService;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
 
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Controller
 public class PostController {
 
+    private static final String EDGE_NODE = "edges/node/";
+
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PublicFeedSnapshot publicFeed;
+
+    @Autowired
+    private PublicPostEvents publicPostEvents;
+
+    // Root queries return futures so sibling fields of one document run concurrently. The
+    // selection and the principal are read on the calling thread, @PreAuthorize is checked
+    // before the task is submitted.
+    @Autowired
+    private QueryFieldExecutor queryExecutor;
+
     @QueryMapping(name = "myPosts")
     @PreAuthorize("isAuthenticated()")
-    public List<PostResponseDTO> getMyPosts() {
+    public CompletableFuture<List<PostResponseDTO>> getMyPosts(DataFetchingFieldSelectionSet selectionSet) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         Long userId = ((CustomUserDetails) userDetails).getId();
-        return postService.findByUserId(userId);
+        Set<PostField> fields = requestedFields(selectionSet, "");
+        return queryExecutor.submit("myPosts", () -> postService.findByUserId(userId, fields));
+    }
+
+    @QueryMapping(name = "myPostsPage")
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<PostConnectionDTO> getMyPostsPage(@Argument Integer first, @Argument String after,
+                                                               DataFetchingFieldSelectionSet selectionSet) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = ((CustomUserDetails) authentication.getPrincipal()).getId();
+        Set<PostField> fields = requestedFields(selectionSet, EDGE_NODE);
+        return queryExecutor.submit("myPostsPage", () -> postService.findByUserIdPage(userId, first, after, fields));
     }
 
     @QueryMapping(name = "findPostById")
-    public PostResponseDTO findById(@Argument(name = "id") Long id) {
-        return postService.findById(id);
+    public CompletableFuture<PostResponseDTO> findById(@Argument(name = "id") Long id) {
+        return queryExecutor.submit("findPostById", () -> postService.findById(id));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @QueryMapping(name = "findAllPosts")
-    public List<PostResponseDTO> findAll() {
-        return postService.findAll();
+    public CompletableFuture<List<PostResponseDTO>> findAll(DataFetchingFieldSelectionSet selectionSet) {
+        Set<PostField> fields = requestedFields(selectionSet, "");
+        return queryExecutor.submit("findAllPosts", () -> postService.findAll(fields));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryMapping(name = "findAllPostsPage")
+    public CompletableFuture<PostConnectionDTO> findAllPage(@Argument Integer first, @Argument String after,
+                                                            DataFetchingFieldSelectionSet selectionSet) {
+        Set<PostField> fields = requestedFields(selectionSet, EDGE_NODE);
+        return queryExecutor.submit("findAllPostsPage", () -> postService.findAllPage(first, after, fields));
+    }
+
+    @QueryMapping(name = "posts")
+    public CompletableFuture<PostConnectionDTO> posts(@Argument PostFilterDTO filter, @Argument PostOrderDTO orderBy,
+                                                      @Argument Integer first, @Argument String after,
+                                                      DataFetchingFieldSelectionSet selectionSet) {
+        Set<PostField> fields = requestedFields(selectionSet, EDGE_NODE);
+        return queryExecutor.submit("posts", () -> postService.findPosts(filter != null ? filter : new PostFilterDTO(),
+                orderBy != null ? orderBy : new PostOrderDTO(),
+                first, after, fields));
     }
 
     @PreAuthorize("hasRole('USER')")
@@ -48,20 +118,92 @@ public class PostController {
         return postService.save(postRequest);
     }
 
+    @PreAuthorize("hasRole('USER')")
+    @MutationMapping(name = "createPosts")
+    public List<PostResponseDTO> createPosts(@Argument List<PostRequestDTO> postRequests) {
+        return postService.saveAll(postRequests);
+    }
+
     @MutationMapping(name = "deletePostById")
     public String deletePost(@Argument(name = "id") Long id) {
         postService.deleteById(id);
         return "Post deleted";
     }
 
+    @PreAuthorize("isAuthenticated()")
+    @MutationMapping(name = "deletePostsByIds")
+    public List<DeletePostResultDTO> deletePosts(@Argument List<Long> ids) {
+        return postService.deleteAllByIds(ids);
+    }
+
     @MutationMapping(name = "updatePostById")
     public PostResponseDTO updatePost(@Argument PostRequestDTO postRequest) {
         return postService.update(postRequest);
     }
 
     @QueryMapping(name = "findPublicPosts")
-    public List<PostResponseDTO> findPublicPosts() {
-        return postService.findPublicPosts();
+    public CompletableFuture<List<PostResponseDTO>> findPublicPosts(DataFetchingFieldSelectionSet selectionSet) {
+        Set<PostField> fields = requestedFields(selectionSet, "");
+        return queryExecutor.submit("findPublicPosts", () -> postService.findPublicPosts(fields));
+    }
+
+    @SubscriptionMapping(name = "publicPostChanged")
+    public Flux<PublicPostChangeDTO> publicPostChanged() {
+        return publicPostEvents.subscribe();
+    }
+
+    @QueryMapping(name = "findPublicPostsPage")
+    public CompletableFuture<PostConnectionDTO> findPublicPostsPage(@Argument Integer first, @Argument String after,
+                                                                    DataFetchingFieldSelectionSet selectionSet) {
+        Set<PostField> fields = requestedFields(selectionSet, EDGE_NODE);
+        return queryExecutor.submit("findPublicPostsPage", () -> postService.findPublicPostsPage(first, after, fields));
+    }
+
+    @QueryMapping(name = "searchPosts")
+    public CompletableFuture<PostConnectionDTO> searchPosts(@Argument String query, @Argument Integer first,
+                                                            @Argument String after) {
+        return queryExecutor.submit("searchPosts", () -> postService.searchPosts(query, first, after));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryMapping(name = "publicFeedStats")
+    public PublicFeedStatsDTO publicFeedStats() {
+        return publicFeed.getStats();
+    }
+
+    // Maps the GraphQL selection to the columns the list queries read, so a title list does not
+    // pull the content column. The author is resolved from userId.
+    private static Set<PostField> requestedFields(DataFetchingFieldSelectionSet selectionSet, String prefix) {
+        Set<PostField> fields = EnumSet.noneOf(PostField.class);
+        for (PostField field : PostField.values()) {
+            if (selectionSet.contains(prefix + field.getGraphQlName())) {
+                fields.add(field);
+            }
+        }
+        if (selectionSet.contains(prefix + "author")) {
+            fields.add(PostField.USER_ID);
+        }
+        return fields;
+    }
+
+    // Resolved through a DataLoader: every PostResponse of the current request is collected and
+    // their authors are loaded with a single findAllById.
+    @BatchMapping(typeName = "PostResponse", field = "author")
+    public Map<PostResponseDTO, UserResponseDTO> author(List<PostResponseDTO> posts) {
+        Set<Long> userIds = posts.stream()
+                .map(PostResponseDTO::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, UserResponseDTO> users = userService.findAllByIds(userIds);
+
+        Map<PostResponseDTO, UserResponseDTO> authors = new HashMap<>();
+        for (PostResponseDTO post : posts) {
+            UserResponseDTO user = users.get(post.getUserId());
+            if (user != null) {
+                authors.put(post, user);
+            }
+        }
+        return authors;
     }
 
 }
@@ -1,9 +1,12 @@
 package com.adhissoncedeno.backend.controllers;
 
+import com.adhissoncedeno.backend.config.QueryFieldExecutor;
 import com.adhissoncedeno.backend.model.dtos.request.UserRequestDTO;
+import com.adhissoncedeno.backend.model.dtos.response.CacheStatsDTO;
 import com.adhissoncedeno.backend.model.dtos.response.UserResponseDTO;
 import com.adhissoncedeno.backend.model.entities.User;
 import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.services.CustomUserDetailsService;
 import com.adhissoncedeno.backend.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
@@ -13,6 +16,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class UserController {
@@ -20,16 +24,28 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private QueryFieldExecutor queryExecutor;
+
     @PreAuthorize("hasRole('ADMIN')")
     @QueryMapping(name = "findUserById")
-    public User findById(@Argument(name = "id") Long id) {
-        return userService.findById(id);
+    public CompletableFuture<User> findById(@Argument(name = "id") Long id) {
+        return queryExecutor.submit("findUserById", () -> userService.findById(id));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @QueryMapping(name = "findAllUsers")
-    public List<UserResponseDTO> findAll() {
-        return userService.findAll();
+    public CompletableFuture<List<UserResponseDTO>> findAll() {
+        return queryExecutor.submit("findAllUsers", userService::findAll);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @QueryMapping(name = "userCacheStats")
+    public CacheStatsDTO userCacheStats() {
+        return userDetailsService.getCacheStats();
     }
 
     @MutationMapping(name = "createUser")
@@ -40,6 +56,19 @@ public class UserController {
         return userService.create(userRequest);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @MutationMapping(name = "updateUserRole")
+    public UserResponseDTO updateUserRole(@Argument(name = "id") Long id, @Argument(name = "role") Role role) {
+        return userService.updateRole(id, role);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @MutationMapping(name = "revokeUserTokens")
+    public String revokeUserTokens(@Argument(name = "id") Long id) {
+        userService.revokeTokens(id);
+        return "User tokens revoked";
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @MutationMapping(name = "deleteUserById")
     public String deleteUser(@Argument(name = "id") Long id) {
@@ -5,6 +5,8 @@ import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
 import com.adhissoncedeno.backend.model.entities.Post;
 import org.springframework.stereotype.Component;
 
+import java.time.ZoneOffset;
+
 @Component
 public class PostMapper {
 
@@ -22,6 +24,10 @@ public class PostMapper {
         dto.setTitle(entity.getTitle());
         dto.setContent(entity.getContent());
         dto.setPublic(entity.isPublic());
+        dto.setVersion(entity.getVersion());
+        if (entity.getCreatedAt() != null) {
+            dto.setCreatedAt(entity.getCreatedAt().toInstant(ZoneOffset.UTC));
+        }
 
         if (entity.getUser() != null) {
             dto.setUserId(entity.getUser().getId());
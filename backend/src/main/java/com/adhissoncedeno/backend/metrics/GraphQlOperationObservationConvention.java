@@ -0,0 +1,22 @@
+package com.adhissoncedeno.backend.metrics;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.graphql.observation.DefaultExecutionRequestObservationConvention;
+import org.springframework.graphql.observation.ExecutionRequestObservationContext;
+
+/**
+ * Adds the operation name (for example {@code GetAllPosts}) to the {@code graphql.request}
+ * metrics, so requests can be told apart per operation and not only per query/mutation.
+ * Documents without a name are grouped as {@code anonymous}.
+ */
+public class GraphQlOperationObservationConvention extends DefaultExecutionRequestObservationConvention {
+
+    static final String OPERATION_NAME = "graphql.operation.name";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ExecutionRequestObservationContext context) {
+        String operationName = context.getExecutionInput().getOperationName();
+        return super.getLowCardinalityKeyValues(context)
+                .and(OPERATION_NAME, operationName != null && !operationName.isBlank() ? operationName : "anonymous");
+    }
+}
@@ -0,0 +1,68 @@
+package com.adhissoncedeno.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records how many SQL statements each GraphQL request executed ({@code graphql.request.statements}).
+ * GraphQL requests with asynchronous resolvers finish in an async dispatch, so the counter is
+ * kept as a request attribute and recorded when the last dispatch ends.
+ */
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private static final String COUNTER_ATTRIBUTE = StatementCountFilter.class.getName() + ".counter";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private DistributionSummary statements;
+
+    @PostConstruct
+    void init() {
+        statements = DistributionSummary.builder("graphql.request.statements")
+                .description("SQL statements executed per GraphQL request")
+                .baseUnit("statements")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"/graphql".equals(request.getRequestURI());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AtomicInteger counter = (AtomicInteger) request.getAttribute(COUNTER_ATTRIBUTE);
+        if (counter == null) {
+            counter = new AtomicInteger();
+            request.setAttribute(COUNTER_ATTRIBUTE, counter);
+        }
+        AtomicInteger previous = StatementCounter.bind(counter);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            StatementCounter.bind(previous);
+            if (!request.isAsyncStarted()) {
+                statements.record(counter.get());
+            }
+        }
+    }
+}
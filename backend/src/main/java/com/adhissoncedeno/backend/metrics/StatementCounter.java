@@ -0,0 +1,51 @@
+package com.adhissoncedeno.backend.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements Hibernate prepares for the current request. The counter lives in a
+ * thread local bound by {@link StatementCountFilter}; executors that run request work on other
+ * threads wrap themselves with {@link #propagating(Executor)} so those statements count too.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger counter = CURRENT.get();
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        return sql;
+    }
+
+    static AtomicInteger bind(AtomicInteger counter) {
+        AtomicInteger previous = CURRENT.get();
+        if (counter != null) {
+            CURRENT.set(counter);
+        } else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+
+    // The counter is bound for the whole task, including the CompletableFuture stages it
+    // completes, so resolvers chained on a field's result are counted as well.
+    public static Executor propagating(Executor delegate) {
+        return task -> {
+            AtomicInteger counter = CURRENT.get();
+            delegate.execute(() -> {
+                AtomicInteger previous = bind(counter);
+                try {
+                    task.run();
+                } finally {
+                    bind(previous);
+                }
+            });
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.adhissoncedeno.backend.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.server.WebSocketGraphQlInterceptor;
+import org.springframework.graphql.server.WebSocketSessionInfo;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the open GraphQL WebSocket connections ({@code graphql.websocket.connections}), from the
+ * connection_init message until the socket closes.
+ */
+@Component
+public class WebSocketConnectionMetrics implements WebSocketGraphQlInterceptor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("graphql.websocket.connections", sessions, Set::size)
+                .description("Open GraphQL WebSocket connections")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Object> handleConnectionInitialization(WebSocketSessionInfo sessionInfo,
+                                                       Map<String, Object> connectionInitPayload) {
+        sessions.add(sessionInfo.getId());
+        return Mono.empty();
+    }
+
+    @Override
+    public void handleConnectionClosed(WebSocketSessionInfo sessionInfo, int statusCode,
+                                       Map<String, Object> connectionInitPayload) {
+        sessions.remove(sessionInfo.getId());
+    }
+}
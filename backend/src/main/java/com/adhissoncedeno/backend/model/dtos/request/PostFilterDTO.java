@@ -0,0 +1,51 @@
+package com.adhissoncedeno.backend.model.dtos.request;
+
+import java.time.Instant;
+
+public class PostFilterDTO {
+    private Long userId;
+    private Boolean isPublic;
+    private String titlePrefix;
+    private Instant createdAfter;
+    private Instant createdBefore;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Boolean getIsPublic() {
+        return isPublic;
+    }
+
+    public void setIsPublic(Boolean isPublic) {
+        this.isPublic = isPublic;
+    }
+
+    public String getTitlePrefix() {
+        return titlePrefix;
+    }
+
+    public void setTitlePrefix(String titlePrefix) {
+        this.titlePrefix = titlePrefix;
+    }
+
+    public Instant getCreatedAfter() {
+        return createdAfter;
+    }
+
+    public void setCreatedAfter(Instant createdAfter) {
+        this.createdAfter = createdAfter;
+    }
+
+    public Instant getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public void setCreatedBefore(Instant createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+}
@@ -0,0 +1,33 @@
+package com.adhissoncedeno.backend.model.dtos.request;
+
+import com.adhissoncedeno.backend.model.enums.PostOrderField;
+import com.adhissoncedeno.backend.model.enums.SortDirection;
+
+public class PostOrderDTO {
+    private PostOrderField field = PostOrderField.ID;
+    private SortDirection direction = SortDirection.ASC;
+
+    public PostOrderDTO() {
+    }
+
+    public PostOrderDTO(PostOrderField field, SortDirection direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+
+    public PostOrderField getField() {
+        return field;
+    }
+
+    public void setField(PostOrderField field) {
+        this.field = field;
+    }
+
+    public SortDirection getDirection() {
+        return direction;
+    }
+
+    public void setDirection(SortDirection direction) {
+        this.direction = direction;
+    }
+}
@@ -0,0 +1,30 @@
+package com.adhissoncedeno.backend.model.dtos.response;
+
+import com.adhissoncedeno.backend.model.enums.DeleteStatus;
+
+public class DeletePostResultDTO {
+
+    private Long id;
+    private DeleteStatus status;
+
+    public DeletePostResultDTO(Long id, DeleteStatus status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public DeleteStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(DeleteStatus status) {
+        this.status = status;
+    }
+}
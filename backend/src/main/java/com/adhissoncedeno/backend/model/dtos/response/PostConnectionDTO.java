@@ -0,0 +1,30 @@
+package com.adhissoncedeno.backend.model.dtos.response;
+
+import java.util.List;
+
+public class PostConnectionDTO {
+
+    private List<PostEdgeDTO> edges;
+    private PageInfoDTO pageInfo;
+
+    public PostConnectionDTO(List<PostEdgeDTO> edges, PageInfoDTO pageInfo) {
+        this.edges = edges;
+        this.pageInfo = pageInfo;
+    }
+
+    public List<PostEdgeDTO> getEdges() {
+        return edges;
+    }
+
+    public void setEdges(List<PostEdgeDTO> edges) {
+        this.edges = edges;
+    }
+
+    public PageInfoDTO getPageInfo() {
+        return pageInfo;
+    }
+
+    public void setPageInfo(PageInfoDTO pageInfo) {
+        this.pageInfo = pageInfo;
+    }
+}
@@ -0,0 +1,28 @@
+package com.adhissoncedeno.backend.model.dtos.response;
+
+public class PostEdgeDTO {
+
+    private String cursor;
+    private PostResponseDTO node;
+
+    public PostEdgeDTO(String cursor, PostResponseDTO node) {
+        this.cursor = cursor;
+        this.node = node;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public PostResponseDTO getNode() {
+        return node;
+    }
+
+    public void setNode(PostResponseDTO node) {
+        this.node = node;
+    }
+}
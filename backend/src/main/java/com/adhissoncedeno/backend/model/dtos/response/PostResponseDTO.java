@@ -1,5 +1,6 @@
 package com.adhissoncedeno.backend.model.dtos.response;
 
+import java.time.Instant;
 
 public class PostResponseDTO {
 
@@ -8,6 +9,9 @@ public class PostResponseDTO {
     private String content;
     private boolean isPublic;
     private Long userId;
+    private Instant createdAt;
+    // Not part of the schema; lets the in-memory copies order the changes of a post.
+    private long version;
 
     public Long getId() {
         return id;
@@ -48,4 +52,20 @@ public class PostResponseDTO {
     public void setUserId(Long userId) {
         this.userId = userId;
     }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,76 @@
+package com.adhissoncedeno.backend.model.dtos.response;
+
+public class PublicFeedStatsDTO {
+    private boolean available;
+    private int size;
+    private long estimatedBytes;
+    private long version;
+    private String lastReconciledAt;
+    private long secondsSinceReconciled;
+    private int lastReconcileDrift;
+    private long totalReconcileDrift;
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public void setEstimatedBytes(long estimatedBytes) {
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getLastReconciledAt() {
+        return lastReconciledAt;
+    }
+
+    public void setLastReconciledAt(String lastReconciledAt) {
+        this.lastReconciledAt = lastReconciledAt;
+    }
+
+    public long getSecondsSinceReconciled() {
+        return secondsSinceReconciled;
+    }
+
+    public void setSecondsSinceReconciled(long secondsSinceReconciled) {
+        this.secondsSinceReconciled = secondsSinceReconciled;
+    }
+
+    public int getLastReconcileDrift() {
+        return lastReconcileDrift;
+    }
+
+    public void setLastReconcileDrift(int lastReconcileDrift) {
+        this.lastReconcileDrift = lastReconcileDrift;
+    }
+
+    public long getTotalReconcileDrift() {
+        return totalReconcileDrift;
+    }
+
+    public void setTotalReconcileDrift(long totalReconcileDrift) {
+        this.totalReconcileDrift = totalReconcileDrift;
+    }
+}
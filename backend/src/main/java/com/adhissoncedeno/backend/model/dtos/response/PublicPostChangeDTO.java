@@ -0,0 +1,40 @@
+package com.adhissoncedeno.backend.model.dtos.response;
+
+import com.adhissoncedeno.backend.model.enums.PostChangeType;
+
+public class PublicPostChangeDTO {
+
+    private PostChangeType type;
+    private Long postId;
+    private PostResponseDTO post;
+
+    public PublicPostChangeDTO(PostChangeType type, Long postId, PostResponseDTO post) {
+        this.type = type;
+        this.postId = postId;
+        this.post = post;
+    }
+
+    public PostChangeType getType() {
+        return type;
+    }
+
+    public void setType(PostChangeType type) {
+        this.type = type;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public PostResponseDTO getPost() {
+        return post;
+    }
+
+    public void setPost(PostResponseDTO post) {
+        this.post = post;
+    }
+}
@@ -2,13 +2,17 @@ package com.adhissoncedeno.backend.model.entities;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
 
 @Entity
 @Table(name = "posts")
 public class Post {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posts_seq")
+    @SequenceGenerator(name = "posts_seq", sequenceName = "posts_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,10 +28,29 @@ public class Post {
     @Column(nullable = false)
     private boolean isPublic;
 
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Incremented by every update, including the native one in PostRepositoryCustomImpl.
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now(ZoneOffset.UTC);
+        }
+    }
+
     public Long getId() {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
 
     public String getTitle() {
         return title;
@@ -60,4 +83,20 @@ public class Post {
     public void setPublic(boolean aPublic) {
         isPublic = aPublic;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,5 @@
+package com.adhissoncedeno.backend.model.enums;
+
+public enum PostChangeType {
+    CREATED, UPDATED, DELETED
+}
@@ -0,0 +1,45 @@
+package com.adhissoncedeno.backend.model.enums;
+
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+public enum PostField {
+    ID("id", "p.id", (dto, value) -> dto.setId((Long) value)),
+    TITLE("title", "p.title", (dto, value) -> dto.setTitle((String) value)),
+    CONTENT("content", "p.content", (dto, value) -> dto.setContent((String) value)),
+    IS_PUBLIC("isPublic", "p.isPublic", (dto, value) -> dto.setPublic((Boolean) value)),
+    USER_ID("userId", "p.user.id", (dto, value) -> dto.setUserId((Long) value)),
+    CREATED_AT("createdAt", "p.createdAt",
+            (dto, value) -> dto.setCreatedAt(((LocalDateTime) value).toInstant(ZoneOffset.UTC))),
+    // Not in the schema, so never selected by a query; read by the in-memory copies.
+    VERSION("version", "p.version", (dto, value) -> dto.setVersion((Long) value));
+
+    public static final Set<PostField> ALL = EnumSet.allOf(PostField.class);
+
+    private final String graphQlName;
+    private final String path;
+    private final BiConsumer<PostResponseDTO, Object> setter;
+
+    PostField(String graphQlName, String path, BiConsumer<PostResponseDTO, Object> setter) {
+        this.graphQlName = graphQlName;
+        this.path = path;
+        this.setter = setter;
+    }
+
+    public String getGraphQlName() {
+        return graphQlName;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void apply(PostResponseDTO dto, Object value) {
+        setter.accept(dto, value);
+    }
+}
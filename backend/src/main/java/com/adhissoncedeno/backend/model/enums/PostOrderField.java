@@ -0,0 +1,47 @@
+package com.adhissoncedeno.backend.model.enums;
+
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Columns posts can be sorted by. The id is always the tiebreaker, so every order is total and
+ * the cursor carries the sort value of the last row together with its id.
+ */
+public enum PostOrderField {
+    ID(PostField.ID),
+    CREATED_AT(PostField.CREATED_AT),
+    TITLE(PostField.TITLE);
+
+    private final PostField field;
+
+    PostOrderField(PostField field) {
+        this.field = field;
+    }
+
+    public PostField getField() {
+        return field;
+    }
+
+    public String getPath() {
+        return field.getPath();
+    }
+
+    public String cursorValue(PostResponseDTO post) {
+        return switch (this) {
+            case ID -> null;
+            case CREATED_AT -> post.getCreatedAt().toString();
+            case TITLE -> post.getTitle();
+        };
+    }
+
+    public Object parseCursorValue(String value) {
+        return switch (this) {
+            case ID -> null;
+            case CREATED_AT -> LocalDateTime.ofInstant(Instant.parse(value), ZoneOffset.UTC);
+            case TITLE -> value;
+        };
+    }
+}
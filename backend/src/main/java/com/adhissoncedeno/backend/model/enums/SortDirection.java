@@ -0,0 +1,5 @@
+package com.adhissoncedeno.backend.model.enums;
+
+public enum SortDirection {
+    ASC, DESC
+}
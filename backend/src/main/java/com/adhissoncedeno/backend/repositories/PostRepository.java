@@ -2,10 +2,37 @@ package com.adhissoncedeno.backend.repositories;
 
 import com.adhissoncedeno.backend.model.entities.Post;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface PostRepository extends JpaRepository<Post, Long> {
-    List<Post> findByUserId(Long userId);
-    List<Post> findByIsPublicTrue();
+public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
+    @Query("select p.id as id, p.user.id as userId, p.isPublic as isPublic from Post p where p.id in :ids")
+    List<PostOwner> findOwnersByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id from Post p where p.user.id = :userId and p.isPublic = true")
+    List<Long> findPublicIdsByUserId(@Param("userId") Long userId);
+
+    @Query("select p.isPublic from Post p where p.id = :id")
+    Optional<Boolean> findIsPublicById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Post p where p.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Post p where p.id in :ids and p.user.id = :userId")
+    int deleteAllByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    interface PostOwner {
+        Long getId();
+
+        Long getUserId();
+
+        boolean getIsPublic();
+    }
 }
@@ -0,0 +1,45 @@
+package com.adhissoncedeno.backend.repositories;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.dtos.request.PostOrderDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.enums.PostField;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface PostRepositoryCustom {
+
+    /**
+     * Reads posts matching the filter as DTOs, selecting only the requested columns (the id is
+     * always included). Rows are ordered by id and start after {@code afterId}; {@code limit} may
+     * be {@code null} for no limit. No entities are loaded into the persistence context.
+     */
+    List<PostResponseDTO> findProjected(PostFilterDTO filter, Set<PostField> fields, Long afterId, Integer limit);
+
+    /**
+     * Same as {@link #findProjected} with an explicit order. The order column is always selected
+     * and the id breaks ties; {@code afterValue} and {@code afterId} identify the last row of the
+     * previous page (both {@code null} for the first page, {@code afterValue} ignored when sorting
+     * by id).
+     */
+    List<PostResponseDTO> findFiltered(PostFilterDTO filter, PostOrderDTO order, Set<PostField> fields,
+                                       Long afterId, Object afterValue, Integer limit);
+
+    /**
+     * Sets the title, content and visibility of the post and increments its version in a single
+     * statement, which also
+     * returns the row as it was before: any post when {@code isAdmin}, otherwise only a post of
+     * {@code userId}. Empty when no row was updated, either because the post does not exist or
+     * because it belongs to someone else.
+     */
+    Optional<PreviousPost> updateReturningPrevious(Long id, String title, String content, boolean isPublic,
+                                                   Long userId, boolean isAdmin);
+
+    // The columns an update cannot change, plus the visibility and version it replaced; the
+    // update sets the version to one more.
+    record PreviousPost(Long userId, LocalDateTime createdAt, boolean isPublic, long version) {
+    }
+}
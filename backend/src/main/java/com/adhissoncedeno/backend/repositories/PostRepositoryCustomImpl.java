@@ -0,0 +1,168 @@
+package com.adhissoncedeno.backend.repositories;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.dtos.request.PostOrderDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.model.enums.PostOrderField;
+import com.adhissoncedeno.backend.model.enums.SortDirection;
+import com.adhissoncedeno.backend.model.entities.Post;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.dialect.SQLServerDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Every predicate here has a matching index in the vendor migrations (V5__add_posts_indexes.sql).
+ * The visibility flag is written as a literal instead of a parameter so SQL Server can match the
+ * filtered {@code is_public = 1} indexes, and the keyset condition repeats the sort column as a
+ * plain range so it becomes the seek predicate.
+ */
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    private static final PostOrderDTO BY_ID = new PostOrderDTO(PostOrderField.ID, SortDirection.ASC);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PostResponseDTO> findProjected(PostFilterDTO filter, Set<PostField> fields, Long afterId, Integer limit) {
+        return findFiltered(filter, BY_ID, fields, afterId, null, limit);
+    }
+
+    @Override
+    public List<PostResponseDTO> findFiltered(PostFilterDTO filter, PostOrderDTO order, Set<PostField> fields,
+                                              Long afterId, Object afterValue, Integer limit) {
+        PostOrderField orderField = order.getField();
+        boolean descending = order.getDirection() == SortDirection.DESC;
+
+        Set<PostField> selected = EnumSet.of(PostField.ID, orderField.getField());
+        selected.addAll(fields);
+
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.getIsPublic() != null) {
+            predicates.add(filter.getIsPublic() ? "p.isPublic = true" : "p.isPublic = false");
+        }
+        if (filter.getUserId() != null) {
+            predicates.add("p.user.id = :userId");
+            parameters.put("userId", filter.getUserId());
+        }
+        if (filter.getTitlePrefix() != null && !filter.getTitlePrefix().isEmpty()) {
+            predicates.add("p.title like :titlePrefix escape '\\'");
+            parameters.put("titlePrefix", escapeLike(filter.getTitlePrefix()) + "%");
+        }
+        if (filter.getCreatedAfter() != null) {
+            predicates.add("p.createdAt >= :createdAfter");
+            parameters.put("createdAfter", LocalDateTime.ofInstant(filter.getCreatedAfter(), ZoneOffset.UTC));
+        }
+        if (filter.getCreatedBefore() != null) {
+            predicates.add("p.createdAt < :createdBefore");
+            parameters.put("createdBefore", LocalDateTime.ofInstant(filter.getCreatedBefore(), ZoneOffset.UTC));
+        }
+        if (afterId != null) {
+            String comparison = descending ? " < " : " > ";
+            if (orderField == PostOrderField.ID) {
+                predicates.add("p.id" + comparison + ":afterId");
+            } else {
+                String path = orderField.getPath();
+                predicates.add(path + (descending ? " <= " : " >= ") + ":afterValue");
+                predicates.add("(" + path + comparison + ":afterValue or p.id" + comparison + ":afterId)");
+                parameters.put("afterValue", afterValue);
+            }
+            parameters.put("afterId", afterId);
+        }
+
+        String direction = descending ? " desc" : " asc";
+        StringBuilder jpql = new StringBuilder("select ")
+                .append(selected.stream()
+                        .map(field -> field.getPath() + " as " + field.name())
+                        .collect(Collectors.joining(", ")))
+                .append(" from Post p");
+        if (!predicates.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", predicates));
+        }
+        jpql.append(" order by ");
+        if (orderField != PostOrderField.ID) {
+            jpql.append(orderField.getPath()).append(direction).append(", ");
+        }
+        jpql.append("p.id").append(direction);
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        parameters.forEach(query::setParameter);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        return query.getResultList().stream()
+                .map(tuple -> {
+                    PostResponseDTO dto = new PostResponseDTO();
+                    for (PostField field : selected) {
+                        field.apply(dto, tuple.get(field.name()));
+                    }
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // JPQL has no way to return the updated row, so this is native: SQL Server reads the previous
+    // values from the OUTPUT clause, H2 (tests and the embedded profile) from its OLD TABLE.
+    @Override
+    public Optional<PreviousPost> updateReturningPrevious(Long id, String title, String content, boolean isPublic,
+                                                          Long userId, boolean isAdmin) {
+        String update = "update posts set title = :title, content = :content, is_public = :isPublic,"
+                + " version = version + 1";
+        String where = isAdmin ? " where id = :id" : " where id = :id and user_id = :userId";
+        String previous = "user_id, created_at, is_public, version";
+        String sql = isSqlServer()
+                ? update + " output deleted." + previous.replace(", ", ", deleted.") + where
+                : "select " + previous + " from old table (" + update + where + ")";
+
+        NativeQuery<?> query = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("user_id", Long.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("is_public", Boolean.class)
+                .addScalar("version", Long.class)
+                .addSynchronizedEntityClass(Post.class)
+                .setParameter("title", title)
+                .setParameter("content", content)
+                .setParameter("isPublic", isPublic)
+                .setParameter("id", id);
+        if (!isAdmin) {
+            query.setParameter("userId", userId);
+        }
+        return query.getResultList().stream()
+                .map(row -> (Object[]) row)
+                .map(row -> new PreviousPost((Long) row[0], (LocalDateTime) row[1], (Boolean) row[2],
+                        (Long) row[3]))
+                .findFirst();
+    }
+
+    private boolean isSqlServer() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof SQLServerDialect;
+    }
+
+    // '[' is a wildcard on SQL Server; the other two are standard LIKE wildcards.
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_")
+                .replace("[", "\\[");
+    }
+}
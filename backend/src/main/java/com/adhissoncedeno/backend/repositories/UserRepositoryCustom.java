@@ -0,0 +1,14 @@
+package com.adhissoncedeno.backend.repositories;
+
+import com.adhissoncedeno.backend.model.entities.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Looks the user up by its natural id, so both the username and the user itself are served
+     * from the second-level cache when they are there.
+     */
+    Optional<User> findByUsername(String username);
+}
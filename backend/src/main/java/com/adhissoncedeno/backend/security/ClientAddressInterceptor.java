@@ -0,0 +1,42 @@
+package com.adhissoncedeno.backend.security;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * Passes the client address to the GraphQL execution, where anonymous calls are rate limited
+ * by IP, and turns the {@code retryAfter} of a rate-limited response into a Retry-After header.
+ * Behind a proxy the address is the one Tomcat takes from X-Forwarded-For, which it only trusts
+ * when the connection comes from one of {@code server.tomcat.remoteip.internal-proxies}.
+ */
+@Component
+public class ClientAddressInterceptor implements WebGraphQlInterceptor {
+
+    public static final String CLIENT_ADDRESS = ClientAddressInterceptor.class.getName() + ".clientAddress";
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress != null) {
+            String address = remoteAddress.getAddress() != null
+                    ? remoteAddress.getAddress().getHostAddress()
+                    : remoteAddress.getHostString();
+            request.configureExecutionInput((input, builder) ->
+                    builder.graphQLContext(Map.of(CLIENT_ADDRESS, address)).build());
+        }
+        return chain.next(request).doOnNext(response -> response.getErrors().stream()
+                .map(error -> error.getExtensions().get(RateLimitInstrumentation.RETRY_AFTER))
+                .filter(Number.class::isInstance)
+                .mapToLong(retryAfter -> ((Number) retryAfter).longValue())
+                .max()
+                .ifPresent(retryAfter -> response.getResponseHeaders()
+                        .set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))));
+    }
+}
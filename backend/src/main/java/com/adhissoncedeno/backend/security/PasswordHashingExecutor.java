@@ -0,0 +1,88 @@
+package com.adhissoncedeno.backend.security;
+
+import com.adhissoncedeno.backend.metrics.StatementCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work (login verification, hashing new passwords) on its own small thread pool, so
+ * a burst of logins cannot occupy the threads that serve the rest of the API. Only the hashing
+ * runs here: the password encoder hands each encode/matches to {@link #call}, and the caller keeps
+ * the database work and token signing. The queue is bounded and full queues reject immediately
+ * instead of making callers wait.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    @Value("${passwordHashing.threads:2}")
+    private int threads;
+
+    @Value("${passwordHashing.queueCapacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor pool;
+
+    private Executor executor;
+
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor = StatementCounter.propagating(pool);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Too many login requests in progress, try again later", e));
+        }
+    }
+
+    // Callers are virtual threads, which unmount while they wait for the result.
+    public <T> T call(Supplier<T> task) {
+        try {
+            return submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int getQueueSize() {
+        return pool.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,97 @@
+package com.adhissoncedeno.backend.security;
+
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLObjectType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Applies {@link RateLimiter} to the root mutation fields that have a limit configured. Calls
+ * are counted per authenticated user id, or per client IP for anonymous calls; a call takes one
+ * token per item of its list arguments (at least one). A call over the limit does not reach its
+ * resolver and gets a RATE_LIMITED error with the seconds to wait in {@code extensions.retryAfter},
+ * or without it when the call alone needs more tokens than the bucket holds.
+ */
+@Component
+public class RateLimitInstrumentation implements Instrumentation {
+
+    public static final String RETRY_AFTER = "retryAfter";
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher,
+                                                InstrumentationFieldFetchParameters parameters,
+                                                InstrumentationState state) {
+        DataFetchingEnvironment environment = parameters.getEnvironment();
+        GraphQLObjectType parentType = (GraphQLObjectType) environment.getParentType();
+        if (parentType != environment.getGraphQLSchema().getMutationType()) {
+            return dataFetcher;
+        }
+        String operation = environment.getField().getName();
+        if (!rateLimiter.isLimited(operation)) {
+            return dataFetcher;
+        }
+        return env -> {
+            long permits = permits(env);
+            long capacity = rateLimiter.capacity(operation);
+            if (permits > capacity) {
+                meterRegistry.counter("graphql.ratelimit.rejected", "operation", operation).increment();
+                return DataFetcherResult.newResult()
+                        .error(GraphqlErrorBuilder.newError(env)
+                                .message(operation + " is limited to " + capacity + " items per call")
+                                .extensions(Map.of("code", "RATE_LIMITED"))
+                                .build())
+                        .build();
+            }
+            Duration retryAfter = rateLimiter.tryAcquire(operation, client(env), permits);
+            if (retryAfter.isZero()) {
+                return dataFetcher.get(env);
+            }
+            meterRegistry.counter("graphql.ratelimit.rejected", "operation", operation).increment();
+            long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+            return DataFetcherResult.newResult()
+                    .error(GraphqlErrorBuilder.newError(env)
+                            .message("Too many " + operation + " requests, retry in " + seconds + "s")
+                            .extensions(Map.of("code", "RATE_LIMITED", RETRY_AFTER, seconds))
+                            .build())
+                    .build();
+        };
+    }
+
+    private static long permits(DataFetchingEnvironment environment) {
+        long items = 0;
+        for (Object argument : environment.getArguments().values()) {
+            if (argument instanceof Collection<?> list) {
+                items += list.size();
+            }
+        }
+        return Math.max(1, items);
+    }
+
+    private static String client(DataFetchingEnvironment environment) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return "user:" + user.getId();
+        }
+        String address = environment.getGraphQlContext().get(ClientAddressInterceptor.CLIENT_ADDRESS);
+        return "ip:" + (address != null ? address : "unknown");
+    }
+}
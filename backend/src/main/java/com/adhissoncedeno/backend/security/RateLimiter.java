@@ -0,0 +1,145 @@
+package com.adhissoncedeno.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per operation and client. With {@code rateLimit.enabled}, an operation is
+ * limited when {@code rateLimit.<operation>.capacity} is set: each client may spend up to that many calls
+ * at once and gets {@code rateLimit.<operation>.perMinute} back every minute. An operation with
+ * {@code rateLimit.<operation>.budget} set draws from the bucket of that other operation
+ * instead, so a batch mutation and its single-item form share one limit. Buckets are
+ * lock-free and held in a bounded cache; a bucket idle for {@code rateLimit.idleTimeout}
+ * is dropped, so that timeout must be longer than the time any bucket takes to refill.
+ */
+@Component
+public class RateLimiter {
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${rateLimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rateLimit.maxKeys:100000}")
+    private long maxKeys;
+
+    @Value("${rateLimit.idleTimeout:600000}")
+    private long idleTimeout;
+
+    private Cache<String, TokenBucket> buckets;
+
+    private final Map<String, Optional<Limit>> limits = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public boolean isLimited(String operation) {
+        return limit(operation).isPresent();
+    }
+
+    /**
+     * Most tokens a single call of the operation may take, or {@link Long#MAX_VALUE} if it is not
+     * limited. A call that needs more would never be allowed.
+     */
+    public long capacity(String operation) {
+        return limit(operation).map(Limit::capacity).orElse(Long.MAX_VALUE);
+    }
+
+    /**
+     * Takes one token from the client's bucket for the operation.
+     *
+     * @return {@link Duration#ZERO} if the call is allowed, otherwise how long until the next token
+     */
+    public Duration tryAcquire(String operation, String client) {
+        return tryAcquire(operation, client, 1);
+    }
+
+    /**
+     * Takes {@code permits} tokens at once, all or none, from the client's bucket for the
+     * operation; {@code permits} must not exceed {@link #capacity(String)}.
+     *
+     * @return {@link Duration#ZERO} if the call is allowed, otherwise how long until enough tokens
+     */
+    public Duration tryAcquire(String operation, String client, long permits) {
+        Optional<Limit> limit = limit(operation);
+        if (limit.isEmpty()) {
+            return Duration.ZERO;
+        }
+        if (permits > limit.get().capacity()) {
+            throw new IllegalArgumentException("At most " + limit.get().capacity() + " tokens can be taken at once");
+        }
+        TokenBucket bucket = buckets.get(limit.get().budget() + ":" + client,
+                key -> new TokenBucket(limit.get().capacity(), limit.get().nanosPerToken()));
+        return Duration.ofNanos(bucket.tryAcquire(System.nanoTime(), permits));
+    }
+
+    private Optional<Limit> limit(String operation) {
+        return limits.computeIfAbsent(operation, key -> {
+            String budget = environment.getProperty("rateLimit." + key + ".budget", key);
+            Long capacity = environment.getProperty("rateLimit." + budget + ".capacity", Long.class);
+            if (!enabled || capacity == null || capacity <= 0) {
+                return Optional.empty();
+            }
+            long perMinute = environment.getProperty("rateLimit." + budget + ".perMinute", Long.class, capacity);
+            return Optional.of(new Limit(budget, capacity, TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute)));
+        });
+    }
+
+    private record Limit(String budget, long capacity, long nanosPerToken) {
+    }
+
+    /**
+     * Token bucket kept as a single timestamp: the instant at which the bucket will be full
+     * again. Taking a token moves it forward by one refill interval, and a call is refused when
+     * that would put it more than {@code capacity} intervals ahead of now.
+     */
+    static final class TokenBucket {
+
+        private final long nanosPerToken;
+
+        private final long burstNanos;
+
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+        TokenBucket(long capacity, long nanosPerToken) {
+            this.nanosPerToken = nanosPerToken;
+            this.burstNanos = capacity * nanosPerToken;
+        }
+
+        long tryAcquire(long now) {
+            return tryAcquire(now, 1);
+        }
+
+        long tryAcquire(long now, long permits) {
+            while (true) {
+                long current = fullAt.get();
+                long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                long next = base + permits * nanosPerToken;
+                if (next - now > burstNanos) {
+                    return next - now - burstNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.adhissoncedeno.backend.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -11,17 +15,27 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.writers.CacheControlHeadersWriter;
+import org.springframework.security.web.header.writers.DelegatingRequestMatcherHeaderWriter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
     @Autowired
     private JwtRequestFilter jwtRequestFilter;
 
@@ -35,10 +49,19 @@ public class SecurityConfig {
                 .requestMatchers("/graphql").permitAll()
                 .requestMatchers("/graphiql").permitAll()
                 .requestMatchers("/auth/login").permitAll()
+                // Served on the separate management port (management.server.port)
+                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            // GET /graphql sets its own Cache-Control (public with an ETag for anonymous queries)
+            .headers(headers -> headers
+                .cacheControl(HeadersConfigurer.CacheControlConfig::disable)
+                .addHeaderWriter(new DelegatingRequestMatcherHeaderWriter(
+                    new NegatedRequestMatcher(AntPathRequestMatcher.antMatcher(HttpMethod.GET, "/graphql")),
+                    new CacheControlHeadersWriter()))
             );
 
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
@@ -51,8 +74,41 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    // Any change of the configured cost, up or down, marks stored hashes for an upgrade; the
+    // authentication provider then re-hashes the password on the next successful login.
+    // The hashing itself runs on the PasswordHashingExecutor pool.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${passwordHashing.strength:10}") int strength,
+                                           MeterRegistry meterRegistry,
+                                           PasswordHashingExecutor passwordHashingExecutor) {
+        Timer encodeTimer = Timer.builder("bcrypt.encode")
+                .description("Time to hash a password")
+                .tag("strength", String.valueOf(strength))
+                .register(meterRegistry);
+        Timer matchesTimer = Timer.builder("bcrypt.matches")
+                .description("Time to check a password against its hash")
+                .tag("strength", String.valueOf(strength))
+                .register(meterRegistry);
+        return new BCryptPasswordEncoder(strength) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return passwordHashingExecutor.call(() -> encodeTimer.record(() -> super.encode(rawPassword)));
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return Boolean.TRUE.equals(passwordHashingExecutor.call(
+                        () -> matchesTimer.record(() -> super.matches(rawPassword, encodedPassword))));
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                if (encodedPassword == null) {
+                    return false;
+                }
+                Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+                return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+            }
+        };
     }
 }
\ No newline at end of file
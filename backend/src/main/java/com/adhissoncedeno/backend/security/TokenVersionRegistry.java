@@ -0,0 +1,84 @@
+package com.adhissoncedeno.backend.security;
+
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user token versions used to invalidate JWTs. Tokens carry the version that was current when
+ * they were issued; bumping a user's version (on revocation, role change or deletion) makes every
+ * older token for that user fail validation. The version is stored in {@code users.token_version},
+ * so revocations survive a restart, and is cached here for {@code tokenVersions.expireAfterWrite}
+ * ms: this node sees its own bumps at once, other nodes once their entry expires.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // Never carried by a token, so every token of a deleted user fails validation.
+    static final int DELETED = -1;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${tokenVersions.maximumSize:10000}")
+    private long maximumSize;
+
+    @Value("${tokenVersions.expireAfterWrite:30000}")
+    private long expireAfterWrite;
+
+    private Cache<Long, Integer> versions;
+
+    // Bumped by every evict before it removes anything, like in CustomUserDetailsService.
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWrite))
+                .build();
+    }
+
+    // Read from the primary outside the cache loader, so a virtual thread never holds a map bin
+    // lock during the query; a load that raced with an evict is returned but not cached.
+    public int currentVersion(Long userId) {
+        Integer version = versions.getIfPresent(userId);
+        if (version == null) {
+            long generation = evictions.get();
+            int loaded = transactionTemplate.execute(status -> userRepository.findTokenVersionById(userId))
+                    .orElse(DELETED);
+            versions.asMap().compute(userId, (key, current) -> evictions.get() == generation ? loaded : current);
+            version = loaded;
+        }
+        return version;
+    }
+
+    public boolean isCurrent(Long userId, int version) {
+        return currentVersion(userId) == version;
+    }
+
+    // Through the entity rather than a bulk UPDATE, which would empty the whole users region of
+    // the second-level cache.
+    public void revoke(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> userRepository.findById(userId)
+                .ifPresent(user -> user.setTokenVersion(user.getTokenVersion() + 1)));
+        evict(userId);
+    }
+
+    // For callers that changed token_version, or deleted the user, in their own transaction.
+    public void evict(Long userId) {
+        evictions.incrementAndGet();
+        versions.invalidate(userId);
+    }
+}
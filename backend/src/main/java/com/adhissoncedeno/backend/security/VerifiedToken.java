@@ -0,0 +1,53 @@
+package com.adhissoncedeno.backend.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Claims of a JWT whose signature has already been checked. Built once per token by
+ * {@link com.adhissoncedeno.backend.utils.JwtTokenUtil#verify(String)} and shared by every
+ * later check on the same request, so the token is never parsed twice.
+ */
+public class VerifiedToken {
+
+    private final Claims claims;
+
+    public VerifiedToken(Claims claims) {
+        this.claims = claims;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public String getUsername() {
+        return claims.getSubject();
+    }
+
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+
+    public Long getUserId() {
+        return claims.get("userId", Long.class);
+    }
+
+    public int getTokenVersion() {
+        Integer version = claims.get("ver", Integer.class);
+        return version != null ? version : 0;
+    }
+
+    public List<String> getRoles() {
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+        return roles != null ? roles : Collections.emptyList();
+    }
+
+    public boolean isExpired() {
+        Date expiration = getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+}
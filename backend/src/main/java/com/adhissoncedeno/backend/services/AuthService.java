@@ -23,8 +23,6 @@ public class AuthService {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
-
-
     public AuthResponseDTO login(AuthRequestDTO request) {
         Authentication authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
@@ -1,26 +1,135 @@
 package com.adhissoncedeno.backend.services;
 
+import com.adhissoncedeno.backend.model.dtos.response.CacheStatsDTO;
 import com.adhissoncedeno.backend.repositories.UserRepository;
 import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${userCache.maximumSize:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${userCache.expireAfterWrite:300000}")
+    private long cacheExpireAfterWrite;
+
+    private Cache<String, CustomUserDetails> cache;
+
+    private final LongAdder invalidations = new LongAdder();
+
+    // Bumped by every evict before it removes anything; see loadUserByUsername.
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(Duration.ofMillis(cacheExpireAfterWrite))
+                .recordStats()
+                .build();
+    }
+
+    // The AuthenticationManager erases the password of the principal it returns, so callers
+    // always get a copy and the cached instance never leaves this class.
+    // The query runs outside cache.get(key, loader): the loader runs inside a synchronized map
+    // bin and would pin the carrier of a virtual thread for the whole query. Two concurrent
+    // misses for the same user both query the database, which is harmless.
+    // An evict that lands while the query is in flight (a role change, a password rehash) would
+    // otherwise be undone by the put that follows it, so the result is only cached if no evict
+    // happened since the query started. The check and the put share the map bin lock with the
+    // remove in evict, and hold it only for the comparison.
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        com.adhissoncedeno.backend.model.entities.User user = userRepository.findByUsername(username)
+        CustomUserDetails cached = cache.getIfPresent(username);
+        if (cached == null) {
+            long generation = evictions.get();
+            CustomUserDetails loaded = loadFromRepository(username);
+            cache.asMap().compute(username, (key, current) ->
+                    evictions.get() == generation ? loaded : current);
+            cached = loaded;
+        }
+        return new CustomUserDetails(
+            cached.getUsername(),
+            cached.getPassword(),
+            cached.getAuthorities(),
+            cached.getId()
+        );
+    }
+
+    // Called by the authentication provider after a successful login when the stored hash was
+    // made with a different BCrypt cost than the configured one.
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findByUsername(user.getUsername()).ifPresent(entity -> {
+                    entity.setPassword(newPassword);
+                    userRepository.save(entity);
+                }));
+        evict(user.getUsername());
+        Long id = user instanceof CustomUserDetails ? ((CustomUserDetails) user).getId() : null;
+        return new CustomUserDetails(user.getUsername(), newPassword, user.getAuthorities(), id);
+    }
+
+    public void evict(String username) {
+        evictions.incrementAndGet();
+        if (cache.asMap().remove(username) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public void evict(Long userId) {
+        evictions.incrementAndGet();
+        cache.asMap().values().removeIf(userDetails -> {
+            boolean matches = userDetails.getId().equals(userId);
+            if (matches) {
+                invalidations.increment();
+            }
+            return matches;
+        });
+    }
+
+    public CacheStatsDTO getCacheStats() {
+        CacheStats stats = cache.stats();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setSize(cache.estimatedSize());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        dto.setInvalidationCount(invalidations.sum());
+        return dto;
+    }
+
+    // Always from the primary, in a read-write transaction: a lagging replica would reject a
+    // login right after sign-up, or cache a role that has just been changed.
+    private CustomUserDetails loadFromRepository(String username) {
+        com.adhissoncedeno.backend.model.entities.User user = transactionTemplate.execute(status ->
+                userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
         List<GrantedAuthority> authorities = Collections.singletonList(
             new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
@@ -33,4 +142,4 @@ public class CustomUserDetailsService implements UserDetailsService {
             user.getId()
         );
     }
-}
\ No newline at end of file
+}
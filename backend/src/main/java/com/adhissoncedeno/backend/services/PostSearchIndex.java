@@ -0,0 +1,652 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.entities.Post;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the title and content of every post, ranked with BM25. Each
+ * post is a document numbered in insertion order; a term maps to the documents that contain it
+ * and how often. An update adds the post again as a new document and marks the old one deleted,
+ * so postings are only ever appended; deleted documents are skipped when ranking and dropped
+ * by the periodic rebuild from the database, which also picks up changes made outside this
+ * instance. Searches share a read lock and writes take the write lock for the few microseconds
+ * they need, so both only contend on the index itself. As in {@link PublicFeedSnapshot}, a change
+ * no newer than the version of the post already indexed is ignored, and deleted posts and
+ * authors are remembered until the next rebuild so a late update cannot bring them back.
+ */
+@Service
+public class PostSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int MAX_QUERY_TERMS = 16;
+
+    // BM25 parameters with their usual values; a term in the title counts as two in the content.
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_WEIGHT = 2;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${search.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Held while the database is read; see PublicFeedSnapshot for why it is not a monitor.
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Null until the first build finishes; a rebuild swaps in a new one. Guarded by the lock.
+    private Index index;
+
+    // Writes applied while a rebuild is reading the database; replayed on top of the new index
+    // so they are not lost. Guarded by the write lock, null outside a rebuild.
+    private Map<Long, Document> pendingWrites;
+    private Set<Long> pendingUserRemovals;
+
+    public record Hit(long postId, float score) {
+    }
+
+    /**
+     * Best matches for the query that the viewer may see, by descending score and then by
+     * ascending post id, starting after the given score and post id when {@code afterPostId}
+     * is not null. Empty while the index is still being built.
+     */
+    public Optional<List<Hit>> search(String query, Long viewerId, boolean admin,
+                                      Float afterScore, Long afterPostId, int limit) {
+        List<String> terms = new ArrayList<>(frequencies(query).keySet());
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return Optional.empty();
+            }
+            return Optional.of(index.search(terms, viewerId, admin, afterScore, afterPostId, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void apply(Post post) {
+        write(List.of(Document.of(post)));
+    }
+
+    public void applyAll(Collection<Post> posts) {
+        List<Document> documents = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            documents.add(Document.of(post));
+        }
+        write(documents);
+    }
+
+    public void remove(Long postId) {
+        write(List.of(Document.tombstone(postId)));
+    }
+
+    public void removeAll(Collection<Long> postIds) {
+        List<Document> documents = new ArrayList<>(postIds.size());
+        for (Long postId : postIds) {
+            documents.add(Document.tombstone(postId));
+        }
+        write(documents);
+    }
+
+    public void removeByUser(Long userId) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUserRemovals != null) {
+                pendingUserRemovals.add(userId);
+            }
+            if (index != null) {
+                index.removeByUser(userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Tokenized before taking the lock, so writers hold it only to append postings.
+    private void write(List<Document> documents) {
+        List<Map<String, Integer>> frequencies = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            frequencies.add(document.isTombstone() ? null : frequencies(document));
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < documents.size(); i++) {
+                Document document = documents.get(i);
+                if (pendingWrites != null) {
+                    pendingWrites.merge(document.postId(), document, Document::latest);
+                }
+                if (index != null) {
+                    index.apply(document, frequencies.get(i));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${search.rebuildInterval:3600000}",
+            initialDelayString = "${search.rebuildInterval:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = new HashMap<>();
+                pendingUserRemovals = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                long start = System.nanoTime();
+                Index rebuilt = loadFromDatabase();
+                int posts;
+                lock.writeLock().lock();
+                try {
+                    for (Long userId : pendingUserRemovals) {
+                        rebuilt.removeByUser(userId);
+                    }
+                    for (Document document : pendingWrites.values()) {
+                        rebuilt.apply(document, document.isTombstone() ? null : frequencies(document));
+                    }
+                    index = rebuilt;
+                    posts = rebuilt.liveCount;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                logger.info("Search index built with {} posts in {} ms", posts,
+                        (System.nanoTime() - start) / 1_000_000);
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    pendingWrites = null;
+                    pendingUserRemovals = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Reads every post in keyset batches into an index that no reader can see yet.
+    private Index loadFromDatabase() {
+        Index loaded = new Index();
+        long afterId = 0;
+        while (true) {
+            List<PostResponseDTO> batch = postRepository.findProjected(
+                    new PostFilterDTO(), PostField.ALL, afterId, LOAD_BATCH_SIZE);
+            for (PostResponseDTO post : batch) {
+                Document document = Document.of(post);
+                loaded.apply(document, frequencies(document));
+            }
+            if (batch.size() < LOAD_BATCH_SIZE) {
+                loaded.normalize();
+                return loaded;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private static Map<String, Integer> frequencies(Document document) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, document.title(), TITLE_WEIGHT);
+        addTerms(frequencies, document.content(), 1);
+        return frequencies;
+    }
+
+    private static Map<String, Integer> frequencies(String text) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        addTerms(frequencies, text, 1);
+        return frequencies;
+    }
+
+    /**
+     * Splits the text into lower-case words of letters and digits without accents, so
+     * "Canción" and "cancion" are the same term. Single characters are not indexed.
+     */
+    static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        int length = normalized.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start > 1) {
+                    frequencies.merge(normalized.substring(start, i).toLowerCase(Locale.ROOT), weight, Integer::sum);
+                }
+                start = -1;
+            }
+        }
+    }
+
+    private record Document(long postId, long ownerId, boolean isPublic, String title, String content,
+                            long version) {
+
+        static Document of(Post post) {
+            return new Document(post.getId(), post.getUser().getId(), post.isPublic(),
+                    post.getTitle(), post.getContent(), post.getVersion());
+        }
+
+        static Document of(PostResponseDTO post) {
+            return new Document(post.getId(), post.getUserId(), post.isPublic(),
+                    post.getTitle(), post.getContent(), post.getVersion());
+        }
+
+        static Document tombstone(long postId) {
+            return new Document(postId, 0, false, null, null, Long.MAX_VALUE);
+        }
+
+        // A deletion wins over any update; otherwise the higher version.
+        static Document latest(Document a, Document b) {
+            return b.version() > a.version() ? b : a;
+        }
+
+        boolean isTombstone() {
+            return title == null && content == null;
+        }
+    }
+
+    /**
+     * Documents of one term, in the order they were added. Frequencies are capped at 255 to
+     * keep each posting at five bytes, which only flattens scores that BM25 saturates anyway.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private byte[] frequencies = new byte[2];
+        private int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = (byte) Math.min(frequency, 255);
+            size++;
+        }
+    }
+
+    /**
+     * The index proper; not thread-safe on its own, guarded by the lock of the enclosing service.
+     * Document data lives in parallel arrays indexed by document number rather than in one
+     * object per post, and the postings in primitive arrays.
+     */
+    private static final class Index {
+
+        private static final int MAX_SCORE_BUFFERS = 4;
+
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Queue<float[]> scoreBuffers = new ConcurrentLinkedQueue<>();
+        private final Map<Long, Integer> docByPost = new HashMap<>();
+        private final BitSet live = new BitSet();
+        private final BitSet publicDocs = new BitSet();
+        // Deleted since this index was built, so kept out of it until the next rebuild.
+        private final Set<Long> deletedPosts = new HashSet<>();
+        private final Set<Long> deletedUsers = new HashSet<>();
+        private long[] postIds = new long[1024];
+        private long[] ownerIds = new long[1024];
+        private long[] versions = new long[1024];
+        private int[] lengths = new int[1024];
+        // Length normalization of BM25 for each document, k1 * (1 - b + b * length / average),
+        // computed when the document is added so searches do not divide by the average length.
+        private float[] norms = new float[1024];
+        private int size;
+        private int liveCount;
+        private long totalLength;
+
+        void apply(Document document, Map<String, Integer> frequencies) {
+            if (deletedPosts.contains(document.postId())) {
+                return;
+            }
+            if (document.isTombstone()) {
+                deletedPosts.add(document.postId());
+            } else if (deletedUsers.contains(document.ownerId())) {
+                return;
+            }
+            Integer previous = docByPost.get(document.postId());
+            if (previous != null) {
+                if (!document.isTombstone() && versions[previous] >= document.version()) {
+                    return;
+                }
+                docByPost.remove(document.postId());
+                delete(previous);
+            }
+            if (frequencies == null) {
+                return;
+            }
+            int doc = size++;
+            if (doc == postIds.length) {
+                int capacity = doc * 2;
+                postIds = Arrays.copyOf(postIds, capacity);
+                ownerIds = Arrays.copyOf(ownerIds, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                norms = Arrays.copyOf(norms, capacity);
+            }
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue());
+                length += entry.getValue();
+            }
+            postIds[doc] = document.postId();
+            ownerIds[doc] = document.ownerId();
+            versions[doc] = document.version();
+            lengths[doc] = length;
+            live.set(doc);
+            publicDocs.set(doc, document.isPublic());
+            docByPost.put(document.postId(), doc);
+            liveCount++;
+            totalLength += length;
+            norms[doc] = norm(length, (float) totalLength / liveCount);
+        }
+
+        // After a bulk load, so every document is normalized with the same average length.
+        // Documents added later use the average at the time they are added.
+        void normalize() {
+            float averageLength = liveCount > 0 ? (float) totalLength / liveCount : 1;
+            for (int doc = 0; doc < size; doc++) {
+                norms[doc] = norm(lengths[doc], averageLength);
+            }
+        }
+
+        private static float norm(int length, float averageLength) {
+            return K1 * (1 - B + B * length / Math.max(averageLength, 1));
+        }
+
+        void removeByUser(long userId) {
+            deletedUsers.add(userId);
+            for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+                if (ownerIds[doc] == userId) {
+                    docByPost.remove(postIds[doc]);
+                    delete(doc);
+                }
+            }
+        }
+
+        private void delete(int doc) {
+            live.clear(doc);
+            liveCount--;
+            totalLength -= lengths[doc];
+        }
+
+        // Term at a time: scores are accumulated per document for each term, then the matches
+        // the viewer may see go through a bounded heap that keeps the best `limit` of them. When
+        // the terms cover a good part of the index, every document is scanned instead of keeping
+        // track of the matched ones. Terms found in more than a tenth of the documents (such as
+        // "de" or "la") only add to documents matched by a rarer term of the query, as in a
+        // common terms query, so they do not make the search walk most of the index.
+        List<Hit> search(List<String> terms, Long viewerId, boolean admin,
+                         Float afterScore, Long afterPostId, int limit) {
+            List<Postings> rare = new ArrayList<>(terms.size());
+            List<Postings> common = new ArrayList<>(terms.size());
+            long rarePostings = 0;
+            for (String term : terms) {
+                Postings found = postings.get(term);
+                if (found == null) {
+                    continue;
+                }
+                if (found.size > liveCount / 10) {
+                    common.add(found);
+                } else {
+                    rare.add(found);
+                    rarePostings += found.size;
+                }
+            }
+            if (rare.isEmpty()) {
+                rare = common;
+                common = List.of();
+                for (Postings term : rare) {
+                    rarePostings += term.size;
+                }
+            }
+            if (liveCount == 0 || rare.isEmpty()) {
+                return List.of();
+            }
+            if (rare.size() == 1 && common.isEmpty()) {
+                return search(rare.get(0), new TopHits(viewerId, admin, afterScore, afterPostId, limit));
+            }
+
+            boolean dense = rarePostings > size / 8;
+            float[] scores = borrowScores();
+            int[] matched = dense ? null : new int[(int) Math.min(size, rarePostings)];
+            int matchedCount = 0;
+            for (Postings term : rare) {
+                float weight = weight(term);
+                int[] docs = term.docs;
+                byte[] frequencies = term.frequencies;
+                for (int i = 0; i < term.size; i++) {
+                    int doc = docs[i];
+                    float tf = frequencies[i] & 0xFF;
+                    if (!dense && scores[doc] == 0) {
+                        matched[matchedCount++] = doc;
+                    }
+                    scores[doc] += weight * tf / (tf + norms[doc]);
+                }
+            }
+            if (!common.isEmpty()) {
+                if (dense) {
+                    for (Postings term : common) {
+                        addScores(term, scores);
+                    }
+                } else {
+                    Arrays.sort(matched, 0, matchedCount);
+                    for (Postings term : common) {
+                        addScores(term, scores, matched, matchedCount);
+                    }
+                }
+            }
+
+            TopHits best = new TopHits(viewerId, admin, afterScore, afterPostId, limit);
+            int candidates = dense ? size : matchedCount;
+            for (int i = 0; i < candidates; i++) {
+                int doc = dense ? i : matched[i];
+                float score = scores[doc];
+                // Scores are positive for every match.
+                if (score != 0) {
+                    best.offer(doc, score);
+                }
+            }
+            if (dense) {
+                Arrays.fill(scores, 0, size, 0);
+            } else {
+                for (int i = 0; i < matchedCount; i++) {
+                    scores[matched[i]] = 0;
+                }
+            }
+            returnScores(scores);
+            return best.hits();
+        }
+
+        // A single term scores each document once, so the postings go straight to the heap.
+        private List<Hit> search(Postings term, TopHits best) {
+            float weight = weight(term);
+            int[] docs = term.docs;
+            byte[] frequencies = term.frequencies;
+            for (int i = 0; i < term.size; i++) {
+                int doc = docs[i];
+                float tf = frequencies[i] & 0xFF;
+                best.offer(doc, weight * tf / (tf + norms[doc]));
+            }
+            return best.hits();
+        }
+
+        // BM25 weight of a term, idf * (k1 + 1). Deleted documents still count in the document
+        // frequency until the next rebuild.
+        private float weight(Postings term) {
+            int df = Math.min(term.size, liveCount);
+            return (float) (Math.log(1 + (liveCount - df + 0.5) / (df + 0.5)) * (K1 + 1));
+        }
+
+        private void addScores(Postings term, float[] scores) {
+            float weight = weight(term);
+            for (int i = 0; i < term.size; i++) {
+                int doc = term.docs[i];
+                float tf = term.frequencies[i] & 0xFF;
+                if (scores[doc] != 0) {
+                    scores[doc] += weight * tf / (tf + norms[doc]);
+                }
+            }
+        }
+
+        // Postings are in ascending document order, so the sorted matches are looked up by
+        // galloping through them: each step at most doubles the distance skipped.
+        private void addScores(Postings term, float[] scores, int[] matched, int matchedCount) {
+            float weight = weight(term);
+            int[] docs = term.docs;
+            int position = 0;
+            for (int i = 0; i < matchedCount && position < term.size; i++) {
+                int doc = matched[i];
+                int step = 1;
+                int bound = position;
+                while (bound < term.size && docs[bound] < doc) {
+                    position = bound + 1;
+                    bound += step;
+                    step <<= 1;
+                }
+                int found = Arrays.binarySearch(docs, position, Math.min(bound + 1, term.size), doc);
+                if (found >= 0) {
+                    float tf = term.frequencies[found] & 0xFF;
+                    scores[doc] += weight * tf / (tf + norms[doc]);
+                    position = found + 1;
+                } else {
+                    position = -found - 1;
+                }
+            }
+        }
+
+        // With a million posts the scores take 4 MB, which would otherwise be allocated and
+        // collected by every search. Buffers come back zeroed and are dropped once too small.
+        private float[] borrowScores() {
+            float[] scores = scoreBuffers.poll();
+            return scores != null && scores.length >= size ? scores : new float[postIds.length];
+        }
+
+        private void returnScores(float[] scores) {
+            if (scores.length >= size && scoreBuffers.size() < MAX_SCORE_BUFFERS) {
+                scoreBuffers.offer(scores);
+            }
+        }
+
+        /**
+         * The best {@code limit} visible documents offered to it, after the cursor if there is
+         * one. A document under the worst score kept is discarded with a single comparison.
+         */
+        private final class TopHits {
+
+            private final Long viewerId;
+            private final boolean admin;
+            private final Float afterScore;
+            private final Long afterPostId;
+            private final int limit;
+            private final PriorityQueue<Hit> best;
+            private float threshold;
+
+            TopHits(Long viewerId, boolean admin, Float afterScore, Long afterPostId, int limit) {
+                this.viewerId = viewerId;
+                this.admin = admin;
+                this.afterScore = afterScore;
+                this.afterPostId = afterPostId;
+                this.limit = limit;
+                this.best = new PriorityQueue<>(limit + 1, Index::compareWorstFirst);
+            }
+
+            void offer(int doc, float score) {
+                if (score < threshold || !live.get(doc) || !visible(doc, viewerId, admin)) {
+                    return;
+                }
+                long postId = postIds[doc];
+                if (afterPostId != null && !isAfter(score, postId, afterScore, afterPostId)) {
+                    return;
+                }
+                if (best.size() == limit) {
+                    Hit worst = best.peek();
+                    if (!isAfter(worst.score(), worst.postId(), score, postId)) {
+                        return;
+                    }
+                    best.poll();
+                }
+                best.add(new Hit(postId, score));
+                if (best.size() == limit) {
+                    threshold = best.peek().score();
+                }
+            }
+
+            List<Hit> hits() {
+                List<Hit> hits = new ArrayList<>(best);
+                hits.sort((a, b) -> compareWorstFirst(b, a));
+                return hits;
+            }
+        }
+
+        // Same rules as PostService.findById: public posts for everyone, private ones for their
+        // owner and for admins.
+        private boolean visible(int doc, Long viewerId, boolean admin) {
+            return publicDocs.get(doc) || admin || (viewerId != null && ownerIds[doc] == viewerId);
+        }
+
+        // Whether (score, postId) comes after (afterScore, afterPostId) in descending score order.
+        private static boolean isAfter(float score, long postId, float afterScore, long afterPostId) {
+            return score < afterScore || (score == afterScore && postId > afterPostId);
+        }
+
+        private static int compareWorstFirst(Hit a, Hit b) {
+            int byScore = Float.compare(a.score(), b.score());
+            return byScore != 0 ? byScore : Long.compare(b.postId(), a.postId());
+        }
+    }
+}
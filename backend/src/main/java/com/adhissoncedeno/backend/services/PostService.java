@@ -2,49 +2,191 @@ package com.adhissoncedeno.backend.services;
 
 
 import com.adhissoncedeno.backend.mappers.PostMapper;
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.dtos.request.PostOrderDTO;
 import com.adhissoncedeno.backend.model.dtos.request.PostRequestDTO;
+import com.adhissoncedeno.backend.model.dtos.response.DeletePostResultDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PageInfoDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostConnectionDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostEdgeDTO;
 import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
 import com.adhissoncedeno.backend.model.entities.Post;
 import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.DeleteStatus;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.model.enums.PostOrderField;
+import com.adhissoncedeno.backend.model.enums.SortDirection;
 import com.adhissoncedeno.backend.repositories.PostRepository;
 import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.utils.CursorUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Reads run in read-only transactions, which go to a read replica when there are any (see
+ * ReadWriteRoutingDataSource). Writes, including the reads they depend on, run in read-write
+ * transactions on the primary; the in-memory copies and subscribers are told after the commit.
+ */
 @Service
 public class PostService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Keeps the IN lists well below SQL Server's limit of 2100 parameters per statement.
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     @Autowired
     private PostRepository postRepository;
     @Autowired
     private UserService userService;
     @Autowired
     private PostMapper postMapper;
+    @Autowired
+    private PublicFeedSnapshot publicFeed;
+    @Autowired
+    private PublicPostEvents publicPostEvents;
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-    public List<PostResponseDTO> findAll() {
-        return postRepository.findAll().stream()
-                .map(postMapper::toDto)
-                .collect(Collectors.toList());
+    @Value("${posts.maxBatchSize:1000}")
+    private int maxBatchSize;
+
+    @Value("${posts.maxDeleteSize:10000}")
+    private int maxDeleteSize;
+
+    @Transactional(readOnly = true)
+    public List<PostResponseDTO> findAll(Set<PostField> fields) {
+        return postRepository.findProjected(new PostFilterDTO(), fields, 0L, null);
     }
 
-    public List<PostResponseDTO> findPublicPosts() {
-        return postRepository.findByIsPublicTrue().stream()
-                .map(postMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<PostResponseDTO> findPublicPosts(Set<PostField> fields) {
+        return findProjected(publicFilter(), fields, 0L, null);
     }
 
-    public List<PostResponseDTO> findByUserId(Long userId) {
-        return postRepository.findByUserId(userId).stream()
-                .map(postMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<PostResponseDTO> findByUserId(Long userId, Set<PostField> fields) {
+        return postRepository.findProjected(ownerFilter(userId), fields, 0L, null);
+    }
+
+    @Transactional(readOnly = true)
+    public PostConnectionDTO findAllPage(Integer first, String after, Set<PostField> fields) {
+        return findPage(new PostFilterDTO(), new PostOrderDTO(), first, after, fields);
+    }
+
+    @Transactional(readOnly = true)
+    public PostConnectionDTO findPublicPostsPage(Integer first, String after, Set<PostField> fields) {
+        return findPage(publicFilter(), new PostOrderDTO(), first, after, fields);
+    }
+
+    @Transactional(readOnly = true)
+    public PostConnectionDTO findByUserIdPage(Long userId, Integer first, String after, Set<PostField> fields) {
+        return findPage(ownerFilter(userId), new PostOrderDTO(), first, after, fields);
+    }
+
+    // Admins may list any post. Everyone else only sees public posts, unless they filter by their
+    // own user id, in which case their private posts are included too.
+    @Transactional(readOnly = true)
+    public PostConnectionDTO findPosts(PostFilterDTO filter, PostOrderDTO order, Integer first, String after,
+                                       Set<PostField> fields) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean anonymous = authentication == null || !authentication.isAuthenticated() ||
+                "anonymousUser".equals(authentication.getPrincipal());
+        boolean isAdmin = !anonymous &&
+                authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        boolean isOwner = !anonymous && filter.getUserId() != null &&
+                filter.getUserId().equals(getUserIdFromAuthentication(authentication));
+
+        if (!isAdmin && !isOwner) {
+            if (Boolean.FALSE.equals(filter.getIsPublic())) {
+                throw new AccessDeniedException("You don't have permission to view private posts");
+            }
+            filter.setIsPublic(true);
+        }
+        return findPage(filter, order, first, after, fields);
+    }
+
+    // Ranked by the in-memory index, which only returns posts the caller may see; the page is
+    // then loaded by primary key. The index may lag behind writes made by other instances, so
+    // the loaded rows are checked again and those no longer visible or present are left out.
+    @Transactional(readOnly = true)
+    public PostConnectionDTO searchPosts(String query, Integer first, String after) {
+        int pageSize = pageSize(first);
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("query must not be empty");
+        }
+        boolean hasCursor = after != null && !after.isEmpty();
+        Long afterId = hasCursor ? CursorUtil.decode(after) : null;
+        Float afterScore = null;
+        if (hasCursor) {
+            String sortValue = CursorUtil.decodeSortValue(after);
+            if (sortValue == null) {
+                throw new IllegalArgumentException("Cursor does not match the requested order");
+            }
+            try {
+                afterScore = Float.parseFloat(sortValue);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean anonymous = authentication == null || !authentication.isAuthenticated() ||
+                "anonymousUser".equals(authentication.getPrincipal());
+        boolean isAdmin = !anonymous &&
+                authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        Long userId = anonymous ? null : getUserIdFromAuthentication(authentication);
+
+        List<PostSearchIndex.Hit> hits = postSearchIndex.search(query, userId, isAdmin, afterScore, afterId, pageSize + 1)
+                .orElseThrow(() -> new RuntimeException("Search is not available yet, try again later"));
+
+        List<PostSearchIndex.Hit> page = hits.subList(0, Math.min(pageSize, hits.size()));
+        Map<Long, Post> posts = postRepository.findAllById(page.stream().map(PostSearchIndex.Hit::postId).toList())
+                .stream()
+                .collect(Collectors.toMap(Post::getId, post -> post));
+        List<PostEdgeDTO> edges = new ArrayList<>(page.size());
+        for (PostSearchIndex.Hit hit : page) {
+            Post post = posts.get(hit.postId());
+            if (post != null && (post.isPublic() || isAdmin || post.getUser().getId().equals(userId))) {
+                edges.add(new PostEdgeDTO(CursorUtil.encode(hit.postId(), Float.toString(hit.score())),
+                        postMapper.toDto(post)));
+            }
+        }
+
+        PageInfoDTO pageInfo = new PageInfoDTO();
+        pageInfo.setHasNextPage(hits.size() > pageSize);
+        pageInfo.setHasPreviousPage(hasCursor);
+        if (!page.isEmpty()) {
+            PostSearchIndex.Hit firstHit = page.get(0);
+            PostSearchIndex.Hit lastHit = page.get(page.size() - 1);
+            pageInfo.setStartCursor(CursorUtil.encode(firstHit.postId(), Float.toString(firstHit.score())));
+            pageInfo.setEndCursor(CursorUtil.encode(lastHit.postId(), Float.toString(lastHit.score())));
+        }
+        return new PostConnectionDTO(edges, pageInfo);
     }
 
+    @Transactional(readOnly = true)
     public PostResponseDTO findById(Long id) {
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
@@ -73,54 +215,282 @@ public class PostService {
     public PostResponseDTO save(PostRequestDTO postRequestDTO) {
         Post post = postMapper.toEntity(postRequestDTO);
 
-        Long userId = postRequestDTO.getUserId();
-        if (userId == null) {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            userId = getUserIdFromAuthentication(authentication);
-        }
+        Long userId = postRequestDTO.getUserId() != null ? postRequestDTO.getUserId() :
+                getUserIdFromAuthentication(SecurityContextHolder.getContext().getAuthentication());
 
-        User user = userService.findById(userId);
-        if (user != null) {
+        Post saved = transactionTemplate.execute(status -> {
+            User user = userService.findById(userId);
+            if (user == null) {
+                throw new RuntimeException("User not found");
+            }
             post.setUser(user);
-        } else {
-            throw new RuntimeException("User not found");
+            return postRepository.save(post);
+        });
+        publicFeed.apply(saved);
+        postSearchIndex.apply(saved);
+        PostResponseDTO dto = postMapper.toDto(saved);
+        publicPostEvents.created(dto);
+        return dto;
+    }
+
+    // Owners are loaded with one query and the posts are inserted in one transaction, which lets
+    // Hibernate send them in JDBC batches (ids come from posts_seq, reserved in blocks).
+    public List<PostResponseDTO> saveAll(List<PostRequestDTO> postRequestDTOs) {
+        if (postRequestDTOs.isEmpty()) {
+            return List.of();
+        }
+        if (postRequestDTOs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " posts can be created at once");
         }
 
-        return postMapper.toDto(postRepository.save(post));
+        Long currentUserId = null;
+        Set<Long> ownerIds = new HashSet<>();
+        for (PostRequestDTO postRequestDTO : postRequestDTOs) {
+            if (postRequestDTO.getUserId() == null && currentUserId == null) {
+                currentUserId = getUserIdFromAuthentication(SecurityContextHolder.getContext().getAuthentication());
+            }
+            ownerIds.add(postRequestDTO.getUserId() != null ? postRequestDTO.getUserId() : currentUserId);
+        }
+        Long defaultUserId = currentUserId;
+        List<Post> saved = transactionTemplate.execute(status -> {
+            Map<Long, User> owners = userService.findUsersByIds(ownerIds);
+            List<Post> posts = new ArrayList<>(postRequestDTOs.size());
+            for (PostRequestDTO postRequestDTO : postRequestDTOs) {
+                Long userId = postRequestDTO.getUserId() != null ? postRequestDTO.getUserId() : defaultUserId;
+                User user = owners.get(userId);
+                if (user == null) {
+                    throw new RuntimeException("User not found");
+                }
+                Post post = postMapper.toEntity(postRequestDTO);
+                post.setUser(user);
+                posts.add(post);
+            }
+            return postRepository.saveAll(posts);
+        });
+        publicFeed.applyAll(saved);
+        postSearchIndex.applyAll(saved);
+        List<PostResponseDTO> dtos = saved.stream()
+                .map(postMapper::toDto)
+                .collect(Collectors.toList());
+        publicPostEvents.createdAll(dtos);
+        return dtos;
     }
 
+    // The ownership check is part of the DELETE itself; only when it affects no row does a second
+    // query tell a missing post apart from someone else's.
     public void deleteById(Long id) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        boolean isOwner = post.getUser().getId().equals(getUserIdFromAuthentication(authentication));
+        Long userId = getUserIdFromAuthentication(authentication);
 
-        if (isAdmin || isOwner) {
-            postRepository.deleteById(id);
-        } else {
-            throw new AccessDeniedException("You don't have permission to delete this post");
-        }
+        boolean wasPublic = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            boolean previouslyPublic = previousVisibility(id);
+            int deleted = isAdmin
+                    ? postRepository.deleteAllByIdIn(List.of(id))
+                    : postRepository.deleteAllByIdInAndUserId(List.of(id), userId);
+            if (deleted == 0) {
+                throw notAffected(id, "You don't have permission to delete this post");
+            }
+            return previouslyPublic;
+        }));
+        publicFeed.remove(id);
+        postSearchIndex.remove(id);
+        publicPostEvents.deleted(id, wasPublic);
     }
 
+    // Deletes with one statement per chunk of ids; the ownership check is part of its WHERE clause,
+    // so a user can never delete someone else's post. A select on the same ids beforehand only
+    // tells apart missing posts from forbidden ones for the per-id result.
+    public List<DeletePostResultDTO> deleteAllByIds(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > maxDeleteSize) {
+            throw new IllegalArgumentException("At most " + maxDeleteSize + " posts can be deleted at once");
+        }
 
-    public PostResponseDTO update(PostRequestDTO postRequestDTO) {
-        Post post = postRepository.findById(postRequestDTO.getId())
-                .orElseThrow(() -> new RuntimeException("Post not found"));
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        Long userId = getUserIdFromAuthentication(authentication);
 
+        Map<Long, DeleteStatus> statuses = new HashMap<>();
+        List<Long> deleted = new ArrayList<>();
+        List<Long> deletedPublic = new ArrayList<>();
+        List<Long> pending = new ArrayList<>(distinctIds);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < pending.size(); from += DELETE_CHUNK_SIZE) {
+                List<Long> chunk = pending.subList(from, Math.min(pending.size(), from + DELETE_CHUNK_SIZE));
+                Map<Long, PostRepository.PostOwner> owners = postRepository.findOwnersByIdIn(chunk).stream()
+                        .collect(Collectors.toMap(PostRepository.PostOwner::getId, Function.identity()));
+
+                List<Long> deletable = new ArrayList<>();
+                for (Long id : chunk) {
+                    PostRepository.PostOwner owner = owners.get(id);
+                    if (owner == null) {
+                        statuses.put(id, DeleteStatus.NOT_FOUND);
+                    } else if (isAdmin || owner.getUserId().equals(userId)) {
+                        statuses.put(id, DeleteStatus.DELETED);
+                        deletable.add(id);
+                        if (owner.getIsPublic()) {
+                            deletedPublic.add(id);
+                        }
+                    } else {
+                        statuses.put(id, DeleteStatus.FORBIDDEN);
+                    }
+                }
+                if (deletable.isEmpty()) {
+                    continue;
+                }
+                int affected = isAdmin
+                        ? postRepository.deleteAllByIdIn(deletable)
+                        : postRepository.deleteAllByIdInAndUserId(deletable, userId);
+                // A different count means rows changed between the read and the DELETE. Posts that
+                // still exist changed owner and were kept; posts that are gone are reported as
+                // deleted, even if another request removed them first.
+                if (affected != deletable.size()) {
+                    Set<Long> remaining = postRepository.findOwnersByIdIn(deletable).stream()
+                            .map(PostRepository.PostOwner::getId)
+                            .collect(Collectors.toSet());
+                    remaining.forEach(id -> statuses.put(id, DeleteStatus.FORBIDDEN));
+                    deletedPublic.removeAll(remaining);
+                    deletable.stream().filter(id -> !remaining.contains(id)).forEach(deleted::add);
+                } else {
+                    deleted.addAll(deletable);
+                }
+            }
+        });
+
+        publicFeed.removeAll(deleted);
+        postSearchIndex.removeAll(deleted);
+        publicPostEvents.deletedAll(deletedPublic);
+        return distinctIds.stream()
+                .map(id -> new DeletePostResultDTO(id, statuses.get(id)))
+                .collect(Collectors.toList());
+    }
+
+    // One statement: the conditional UPDATE returns the row as it was, which gives the owner and
+    // creation date for the response and the replaced visibility for the event. Only when it
+    // updates nothing does a second query tell a missing post apart from someone else's.
+    public PostResponseDTO update(PostRequestDTO postRequestDTO) {
+        Long id = postRequestDTO.getId();
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        boolean isOwner = post.getUser().getId().equals(getUserIdFromAuthentication(authentication));
+        Long userId = getUserIdFromAuthentication(authentication);
 
-        if (isAdmin || isOwner) {
-            post.setTitle(postRequestDTO.getTitle());
-            post.setContent(postRequestDTO.getContent());
-            post.setPublic(postRequestDTO.isPublic());
-            return postMapper.toDto(postRepository.save(post));
+        AtomicBoolean wasPublic = new AtomicBoolean();
+        Post saved = transactionTemplate.execute(status -> {
+            PostRepository.PreviousPost previous = postRepository.updateReturningPrevious(id,
+                            postRequestDTO.getTitle(), postRequestDTO.getContent(), postRequestDTO.isPublic(),
+                            userId, isAdmin)
+                    .orElseThrow(() -> notAffected(id, "You don't have permission to update this post"));
+            wasPublic.set(previous.isPublic());
+            User owner = new User();
+            owner.setId(previous.userId());
+            Post post = postMapper.toEntity(postRequestDTO);
+            post.setId(id);
+            post.setUser(owner);
+            post.setCreatedAt(previous.createdAt());
+            post.setVersion(previous.version() + 1);
+            return post;
+        });
+        publicFeed.apply(saved);
+        postSearchIndex.apply(saved);
+        PostResponseDTO dto = postMapper.toDto(saved);
+        publicPostEvents.updated(dto, wasPublic.get());
+        return dto;
+    }
+
+    // The previous visibility only decides which publicPostChanged event is sent, so it is not
+    // read when nobody is subscribed.
+    private boolean previousVisibility(Long id) {
+        return publicPostEvents.hasSubscribers() && postRepository.findIsPublicById(id).orElse(false);
+    }
+
+    private RuntimeException notAffected(Long id, String forbiddenMessage) {
+        if (postRepository.existsById(id)) {
+            return new AccessDeniedException(forbiddenMessage);
+        }
+        return new RuntimeException("Post not found");
+    }
+
+    private int pageSize(Integer first) {
+        if (first == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (first < 1 || first > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("first must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return first;
+    }
+
+    // Public-only reads are answered from the in-memory snapshot while it is available.
+    private List<PostResponseDTO> findProjected(PostFilterDTO filter, Set<PostField> fields, Long afterId, Integer limit) {
+        if (isPublicOnly(filter)) {
+            Optional<List<PostResponseDTO>> fromSnapshot = publicFeed.find(afterId, limit, fields);
+            if (fromSnapshot.isPresent()) {
+                return fromSnapshot.get();
+            }
+        }
+        return postRepository.findProjected(filter, fields, afterId, limit);
+    }
+
+    private boolean isPublicOnly(PostFilterDTO filter) {
+        return Boolean.TRUE.equals(filter.getIsPublic()) && filter.getUserId() == null &&
+                filter.getTitlePrefix() == null && filter.getCreatedAfter() == null &&
+                filter.getCreatedBefore() == null;
+    }
+
+    private PostFilterDTO publicFilter() {
+        PostFilterDTO filter = new PostFilterDTO();
+        filter.setIsPublic(true);
+        return filter;
+    }
+
+    private PostFilterDTO ownerFilter(Long userId) {
+        PostFilterDTO filter = new PostFilterDTO();
+        filter.setUserId(userId);
+        return filter;
+    }
+
+    // The repository is asked for one row more than the page size; its presence is what tells
+    // us there is a next page, without a COUNT query.
+    private PostConnectionDTO findPage(PostFilterDTO filter, PostOrderDTO order, Integer first, String after,
+                                       Set<PostField> fields) {
+        int pageSize = pageSize(first);
+        PostOrderField orderField = order.getField();
+        boolean hasCursor = after != null && !after.isEmpty();
+
+        List<PostResponseDTO> posts;
+        if (orderField == PostOrderField.ID && order.getDirection() == SortDirection.ASC) {
+            posts = findProjected(filter, fields, CursorUtil.decode(after), pageSize + 1);
         } else {
-            throw new AccessDeniedException("You don't have permission to update this post");
+            Long afterId = hasCursor ? CursorUtil.decode(after) : null;
+            Object afterValue = null;
+            if (hasCursor && orderField != PostOrderField.ID) {
+                String sortValue = CursorUtil.decodeSortValue(after);
+                if (sortValue == null) {
+                    throw new IllegalArgumentException("Cursor does not match the requested order");
+                }
+                try {
+                    afterValue = orderField.parseCursorValue(sortValue);
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Invalid cursor", e);
+                }
+            }
+            posts = postRepository.findFiltered(filter, order, fields, afterId, afterValue, pageSize + 1);
+        }
+
+        List<PostEdgeDTO> edges = posts.stream()
+                .limit(pageSize)
+                .map(post -> new PostEdgeDTO(CursorUtil.encode(post.getId(), orderField.cursorValue(post)), post))
+                .collect(Collectors.toList());
+
+        PageInfoDTO pageInfo = new PageInfoDTO();
+        pageInfo.setHasNextPage(posts.size() > pageSize);
+        pageInfo.setHasPreviousPage(hasCursor);
+        if (!edges.isEmpty()) {
+            pageInfo.setStartCursor(edges.get(0).getCursor());
+            pageInfo.setEndCursor(edges.get(edges.size() - 1).getCursor());
         }
+        return new PostConnectionDTO(edges, pageInfo);
     }
 
     private Long getUserIdFromAuthentication(Authentication authentication) {
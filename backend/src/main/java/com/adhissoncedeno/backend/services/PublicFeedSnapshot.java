@@ -0,0 +1,485 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PublicFeedStatsDTO;
+import com.adhissoncedeno.backend.model.entities.Post;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the public posts, served to readers without locks. Every write builds a new
+ * immutable snapshot (copy-on-write) and publishes it through a volatile field, so a reader always
+ * sees one consistent version. A periodic reconciliation rebuilds the snapshot from the database
+ * to pick up changes made outside this instance. When the public posts exceed the configured
+ * limits the snapshot is dropped and readers fall back to the database.
+ *
+ * <p>Changes are applied after their transaction commits, so two changes to one post may arrive
+ * in the opposite order. Each carries the version of the post (incremented by every update), and
+ * a change no newer than the one already applied is ignored. Posts that were deleted, or whose
+ * author was, are remembered until the next reconciliation so a late update cannot bring them
+ * back.
+ */
+@Service
+public class PublicFeedSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicFeedSnapshot.class);
+
+    private static final int RECONCILE_BATCH_SIZE = 1000;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${publicFeed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${publicFeed.maxPosts:100000}")
+    private int maxPosts;
+
+    @Value("${publicFeed.maxBytes:67108864}")
+    private long maxBytes;
+
+    private volatile Snapshot snapshot;
+
+    private final Object writeLock = new Object();
+
+    // Held while the database is read, so a ReentrantLock rather than a monitor: a virtual
+    // thread waiting on it does not pin its carrier.
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    // Posts no longer in the snapshot with the version that took them out (DELETED once deleted),
+    // and the authors deleted since the last reconciliation. Guarded by writeLock.
+    private Map<Long, Long> removed = new HashMap<>();
+    private Set<Long> removedUsers = new HashSet<>();
+
+    // Writes applied while a reconciliation is reading the database; replayed on top of the
+    // rebuilt snapshot so they are not lost. Guarded by writeLock, null outside reconciliation.
+    private Map<Long, Entry> pendingWrites;
+    private Set<Long> pendingUserRemovals;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong totalReconcileDrift = new AtomicLong();
+    private volatile Instant lastReconciledAt;
+    private volatile int lastReconcileDrift;
+
+    public Optional<List<PostResponseDTO>> find(Long afterId, Integer limit, Set<PostField> fields) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.page(afterId, limit, fields));
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Whether reads are being answered from memory; the version only tracks what they return
+    // while they are.
+    public boolean isAvailable() {
+        return snapshot != null;
+    }
+
+    // For changes visible in the public posts that do not touch the posts themselves, such as
+    // the role of an author; only the version moves.
+    public void markChanged() {
+        version.incrementAndGet();
+    }
+
+    public void apply(Post post) {
+        merge(List.of(Entry.of(post)));
+    }
+
+    // One copy of the snapshot for the whole batch instead of one per post.
+    public void applyAll(Collection<Post> posts) {
+        List<Entry> changes = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            changes.add(Entry.of(post));
+        }
+        merge(changes);
+    }
+
+    public void remove(Long postId) {
+        merge(List.of(Entry.deleted(postId)));
+    }
+
+    public void removeAll(Collection<Long> postIds) {
+        List<Entry> changes = new ArrayList<>(postIds.size());
+        for (Long postId : postIds) {
+            changes.add(Entry.deleted(postId));
+        }
+        merge(changes);
+    }
+
+    private void merge(List<Entry> changes) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            List<Entry> accepted = newer(current, changes);
+            if (accepted.isEmpty()) {
+                return;
+            }
+            if (pendingWrites != null) {
+                for (Entry change : accepted) {
+                    pendingWrites.merge(change.id(), change, Entry::latest);
+                }
+            }
+            if (current != null) {
+                snapshot = withinLimits(current.withAll(accepted));
+            }
+            version.incrementAndGet();
+        }
+    }
+
+    // The changes newer than what is known of their post, recording the posts they take out of
+    // the snapshot. Called with writeLock held.
+    private List<Entry> newer(Snapshot current, Collection<Entry> changes) {
+        List<Entry> accepted = new ArrayList<>(changes.size());
+        for (Entry change : changes) {
+            Long removedAt = removed.get(change.id());
+            long known = removedAt != null ? removedAt : current != null ? current.versionOf(change.id()) : -1;
+            boolean isNewer = change.isDeleted() ? known != Entry.DELETED : change.version() > known;
+            if (!isNewer || (!change.isRemoval() && removedUsers.contains(change.userId()))) {
+                continue;
+            }
+            if (change.isRemoval()) {
+                removed.put(change.id(), change.version());
+            } else {
+                removed.remove(change.id());
+            }
+            accepted.add(change);
+        }
+        return accepted;
+    }
+
+    public void removeByUser(Long userId) {
+        synchronized (writeLock) {
+            removedUsers.add(userId);
+            if (pendingUserRemovals != null) {
+                pendingUserRemovals.add(userId);
+            }
+            Snapshot current = snapshot;
+            if (current != null) {
+                snapshot = current.withoutUser(userId);
+            }
+            version.incrementAndGet();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${publicFeed.reconcileInterval:300000}",
+            initialDelayString = "${publicFeed.reconcileInterval:300000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        reconcileLock.lock();
+        try {
+            rebuild();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        synchronized (writeLock) {
+            pendingWrites = new HashMap<>();
+            pendingUserRemovals = new HashSet<>();
+        }
+        try {
+            List<Entry> loaded = loadFromDatabase();
+            synchronized (writeLock) {
+                // What was removed before this reconciliation started is not in the database it
+                // read; only the removals since then are still needed.
+                removed = new HashMap<>();
+                removedUsers = pendingUserRemovals;
+                Snapshot rebuilt = loaded == null ? null : Snapshot.of(loaded);
+                if (rebuilt != null) {
+                    for (Long userId : pendingUserRemovals) {
+                        rebuilt = rebuilt.withoutUser(userId);
+                    }
+                }
+                List<Entry> replayed = newer(rebuilt, pendingWrites.values());
+                if (rebuilt != null) {
+                    rebuilt = withinLimits(rebuilt.withAll(replayed));
+                }
+
+                Snapshot current = snapshot;
+                if (current != null && rebuilt != null) {
+                    int drift = current.countDifferences(rebuilt);
+                    lastReconcileDrift = drift;
+                    totalReconcileDrift.addAndGet(drift);
+                    if (drift > 0) {
+                        logger.info("Public feed snapshot differed from the database in {} posts", drift);
+                        version.incrementAndGet();
+                    }
+                } else if (current != rebuilt) {
+                    version.incrementAndGet();
+                }
+                snapshot = rebuilt;
+                lastReconciledAt = Instant.now();
+            }
+        } finally {
+            synchronized (writeLock) {
+                pendingWrites = null;
+                pendingUserRemovals = null;
+            }
+        }
+    }
+
+    public PublicFeedStatsDTO getStats() {
+        Snapshot current = snapshot;
+        Instant reconciledAt = lastReconciledAt;
+        PublicFeedStatsDTO dto = new PublicFeedStatsDTO();
+        dto.setAvailable(current != null);
+        dto.setSize(current != null ? current.ids.length : 0);
+        dto.setEstimatedBytes(current != null ? current.bytes : 0);
+        dto.setVersion(version.get());
+        if (reconciledAt != null) {
+            dto.setLastReconciledAt(reconciledAt.toString());
+            dto.setSecondsSinceReconciled(Duration.between(reconciledAt, Instant.now()).getSeconds());
+        } else {
+            dto.setSecondsSinceReconciled(-1);
+        }
+        dto.setLastReconcileDrift(lastReconcileDrift);
+        dto.setTotalReconcileDrift(totalReconcileDrift.get());
+        return dto;
+    }
+
+    // Reads the public posts in keyset batches; returns null as soon as they exceed the limits.
+    private List<Entry> loadFromDatabase() {
+        PostFilterDTO filter = new PostFilterDTO();
+        filter.setIsPublic(true);
+
+        List<Entry> entries = new ArrayList<>();
+        long bytes = 0;
+        long afterId = 0;
+        while (true) {
+            List<PostResponseDTO> batch = postRepository.findProjected(
+                    filter, PostField.ALL, afterId, RECONCILE_BATCH_SIZE);
+            for (PostResponseDTO post : batch) {
+                Entry entry = Entry.of(post);
+                entries.add(entry);
+                bytes += entry.estimatedBytes();
+            }
+            if (entries.size() > maxPosts || bytes > maxBytes) {
+                logger.warn("Public feed exceeds the snapshot limits ({} posts, {} bytes); serving it from the database",
+                        maxPosts, maxBytes);
+                return null;
+            }
+            if (batch.size() < RECONCILE_BATCH_SIZE) {
+                return entries;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private Snapshot withinLimits(Snapshot candidate) {
+        if (candidate.ids.length > maxPosts || candidate.bytes > maxBytes) {
+            logger.warn("Public feed snapshot dropped after exceeding its limits ({} posts, {} bytes)",
+                    maxPosts, maxBytes);
+            return null;
+        }
+        return candidate;
+    }
+
+    private record Entry(long id, String title, String content, Long userId, Instant createdAt, long version) {
+
+        // Version of a deleted post: newer than any update.
+        static final long DELETED = Long.MAX_VALUE;
+
+        // A private post is a removal carrying the version that made it private.
+        static Entry of(Post post) {
+            if (!post.isPublic()) {
+                return new Entry(post.getId(), null, null, null, null, post.getVersion());
+            }
+            return new Entry(post.getId(), post.getTitle(), post.getContent(),
+                    post.getUser() != null ? post.getUser().getId() : null,
+                    post.getCreatedAt() != null ? post.getCreatedAt().toInstant(ZoneOffset.UTC) : null,
+                    post.getVersion());
+        }
+
+        static Entry of(PostResponseDTO post) {
+            return new Entry(post.getId(), post.getTitle(), post.getContent(), post.getUserId(),
+                    post.getCreatedAt(), post.getVersion());
+        }
+
+        static Entry deleted(long id) {
+            return new Entry(id, null, null, null, null, DELETED);
+        }
+
+        static Entry latest(Entry a, Entry b) {
+            return b.version() > a.version() ? b : a;
+        }
+
+        boolean isRemoval() {
+            return title == null;
+        }
+
+        boolean isDeleted() {
+            return version == DELETED;
+        }
+
+        long estimatedBytes() {
+            return 80 + 2L * (title.length() + content.length());
+        }
+
+        PostResponseDTO toDto(Set<PostField> fields) {
+            PostResponseDTO dto = new PostResponseDTO();
+            dto.setId(id);
+            if (fields.contains(PostField.TITLE)) {
+                dto.setTitle(title);
+            }
+            if (fields.contains(PostField.CONTENT)) {
+                dto.setContent(content);
+            }
+            if (fields.contains(PostField.IS_PUBLIC)) {
+                dto.setPublic(true);
+            }
+            if (fields.contains(PostField.USER_ID)) {
+                dto.setUserId(userId);
+            }
+            if (fields.contains(PostField.CREATED_AT)) {
+                dto.setCreatedAt(createdAt);
+            }
+            return dto;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(new long[0], new Entry[0], 0);
+
+        final long[] ids;
+        final Entry[] entries;
+        final long bytes;
+
+        private Snapshot(long[] ids, Entry[] entries, long bytes) {
+            this.ids = ids;
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+
+        // Entries arrive ordered by id from the keyset reads.
+        static Snapshot of(List<Entry> sorted) {
+            if (sorted.isEmpty()) {
+                return EMPTY;
+            }
+            long[] ids = new long[sorted.size()];
+            Entry[] entries = sorted.toArray(new Entry[0]);
+            long bytes = 0;
+            for (int i = 0; i < entries.length; i++) {
+                ids[i] = entries[i].id();
+                bytes += entries[i].estimatedBytes();
+            }
+            return new Snapshot(ids, entries, bytes);
+        }
+
+        List<PostResponseDTO> page(Long afterId, Integer limit, Set<PostField> fields) {
+            int from = indexAfter(afterId != null ? afterId : 0);
+            int to = limit != null ? (int) Math.min(ids.length, (long) from + limit) : ids.length;
+            List<PostResponseDTO> result = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                result.add(entries[i].toDto(fields));
+            }
+            return result;
+        }
+
+        // Version of the post in the snapshot, or -1 when it is not in it.
+        long versionOf(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            return index >= 0 ? entries[index].version() : -1;
+        }
+
+        Snapshot withAll(List<Entry> changes) {
+            Entry[] sorted = changes.stream()
+                    .collect(Collectors.toMap(Entry::id, Function.identity(), (first, last) -> last, TreeMap::new))
+                    .values().toArray(new Entry[0]);
+            List<Entry> merged = new ArrayList<>(entries.length + sorted.length);
+            int i = 0;
+            int j = 0;
+            while (i < entries.length || j < sorted.length) {
+                if (j == sorted.length || (i < entries.length && ids[i] < sorted[j].id())) {
+                    merged.add(entries[i++]);
+                } else {
+                    Entry change = sorted[j++];
+                    if (i < entries.length && ids[i] == change.id()) {
+                        i++;
+                    }
+                    if (!change.isRemoval()) {
+                        merged.add(change);
+                    }
+                }
+            }
+            return of(merged);
+        }
+
+        Snapshot withoutUser(Long userId) {
+            List<Entry> kept = new ArrayList<>(entries.length);
+            for (Entry entry : entries) {
+                if (!Objects.equals(entry.userId(), userId)) {
+                    kept.add(entry);
+                }
+            }
+            return kept.size() == entries.length ? this : of(kept);
+        }
+
+        // Number of posts that are missing from one side or differ between both.
+        int countDifferences(Snapshot other) {
+            int differences = 0;
+            int i = 0;
+            int j = 0;
+            while (i < ids.length && j < other.ids.length) {
+                if (ids[i] == other.ids[j]) {
+                    if (!entries[i].equals(other.entries[j])) {
+                        differences++;
+                    }
+                    i++;
+                    j++;
+                } else if (ids[i] < other.ids[j]) {
+                    differences++;
+                    i++;
+                } else {
+                    differences++;
+                    j++;
+                }
+            }
+            return differences + (ids.length - i) + (other.ids.length - j);
+        }
+
+        private int indexAfter(long afterId) {
+            int index = Arrays.binarySearch(ids, afterId);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PublicPostChangeDTO;
+import com.adhissoncedeno.backend.model.enums.PostChangeType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Broadcasts changes of the public posts to the publicPostChanged subscribers. Publishing never
+ * waits for a subscriber: each one has its own buffer of {@code subscriptions.bufferSize}
+ * changes and is delivered on another thread. A subscriber that falls further behind than that
+ * is dropped: it stops receiving new changes, gets the ones already in its buffer and then an
+ * error, since skipping changes would leave its copy of the feed wrong. The client is expected
+ * to reload the posts and subscribe again.
+ */
+@Service
+public class PublicPostEvents {
+
+    // Publishing threads take turns; a concurrent emission is retried instead of failing.
+    private static final Sinks.EmitFailureHandler RETRY_CONCURRENT = Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1));
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${subscriptions.bufferSize:256}")
+    private int bufferSize;
+
+    private final Sinks.Many<PublicPostChangeDTO> sink = Sinks.many().multicast().directBestEffort();
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    private Counter droppedSubscribers;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("graphql.subscriptions.active", subscribers, AtomicInteger::get)
+                .description("Active publicPostChanged subscriptions")
+                .register(meterRegistry);
+        droppedSubscribers = Counter.builder("graphql.subscriptions.dropped")
+                .description("Subscribers dropped because their buffer was full")
+                .register(meterRegistry);
+    }
+
+    public Flux<PublicPostChangeDTO> subscribe() {
+        return sink.asFlux()
+                .onBackpressureBuffer(bufferSize, change -> droppedSubscribers.increment(), BufferOverflowStrategy.ERROR)
+                .publishOn(Schedulers.boundedElastic(), 1)
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    public void created(PostResponseDTO post) {
+        if (post.isPublic()) {
+            emit(new PublicPostChangeDTO(PostChangeType.CREATED, post.getId(), post));
+        }
+    }
+
+    public void createdAll(Collection<PostResponseDTO> posts) {
+        posts.forEach(this::created);
+    }
+
+    public void updated(PostResponseDTO post, boolean wasPublic) {
+        if (post.isPublic()) {
+            emit(new PublicPostChangeDTO(wasPublic ? PostChangeType.UPDATED : PostChangeType.CREATED, post.getId(), post));
+        } else if (wasPublic) {
+            emit(new PublicPostChangeDTO(PostChangeType.DELETED, post.getId(), null));
+        }
+    }
+
+    public void deleted(Long postId, boolean wasPublic) {
+        if (wasPublic) {
+            emit(new PublicPostChangeDTO(PostChangeType.DELETED, postId, null));
+        }
+    }
+
+    // Takes the ids that were public before the delete; callers select them in the same transaction.
+    public void deletedAll(Collection<Long> publicPostIds) {
+        publicPostIds.forEach(postId -> deleted(postId, true));
+    }
+
+    public boolean hasSubscribers() {
+        return sink.currentSubscriberCount() > 0;
+    }
+
+    private void emit(PublicPostChangeDTO change) {
+        if (hasSubscribers()) {
+            sink.emitNext(change, RETRY_CONCURRENT);
+        }
+    }
+}
@@ -4,12 +4,20 @@ import com.adhissoncedeno.backend.mappers.UserMapper;
 import com.adhissoncedeno.backend.model.dtos.request.UserRequestDTO;
 import com.adhissoncedeno.backend.model.dtos.response.UserResponseDTO;
 import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.PostRepository;
 import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.security.TokenVersionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,29 +26,95 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PostRepository postRepository;
+
     @Autowired
     private UserMapper userMapper;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private PublicFeedSnapshot publicFeed;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private PublicPostEvents publicPostEvents;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public UserResponseDTO create(UserRequestDTO userRequestDTO) {
         User user = userMapper.toEntity(userRequestDTO);
         user.setPassword(passwordEncoder.encode(userRequestDTO.getPassword()));
-        return userMapper.toDto(userRepository.save(user));
+        User saved = userRepository.save(user);
+        userDetailsService.evict(saved.getUsername());
+        return userMapper.toDto(saved);
     }
 
+    @Transactional(readOnly = true)
     public User findById(Long id) {
         return userRepository.findById(id).orElse(null);
     }
 
+    @Transactional(readOnly = true)
+    public Map<Long, UserResponseDTO> findAllByIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids).stream()
+                .map(userMapper::toDto)
+                .collect(Collectors.toMap(UserResponseDTO::getId, Function.identity()));
+    }
+
+    public Map<Long, User> findUsersByIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
     public List<UserResponseDTO> findAll() {
         return userRepository.findAll().stream()
                 .map(userMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    public UserResponseDTO updateRole(Long id, Role role) {
+        User saved = transactionTemplate.execute(status -> {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            user.setRole(role);
+            user.setTokenVersion(user.getTokenVersion() + 1);
+            return userRepository.save(user);
+        });
+        userDetailsService.evict(saved.getUsername());
+        tokenVersionRegistry.evict(id);
+        publicFeed.markChanged();
+        return userMapper.toDto(saved);
+    }
+
+    public void revokeTokens(Long id) {
+        tokenVersionRegistry.revoke(id);
+    }
+
+    // The user's posts go with it through the cascade; the public ones are selected in the same
+    // transaction so subscribers get a DELETED change for each of them.
     public void deleteById(Long id) {
-        userRepository.deleteById(id);
+        List<Long> publicPostIds = transactionTemplate.execute(status -> {
+            List<Long> ids = publicPostEvents.hasSubscribers() ? postRepository.findPublicIdsByUserId(id) : List.of();
+            userRepository.deleteById(id);
+            return ids;
+        });
+        publicFeed.removeByUser(id);
+        postSearchIndex.removeByUser(id);
+        publicPostEvents.deletedAll(publicPostIds);
+        userDetailsService.evict(id);
+        tokenVersionRegistry.evict(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.adhissoncedeno.backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque Relay cursors for keyset pagination. Pages ordered by id only need the last id seen
+ * ({@code id > :after ORDER BY id}); pages ordered by another column also carry that column's
+ * value for the last row, since the id is only the tiebreaker.
+ */
+public final class CursorUtil {
+
+    private static final String PREFIX = "cursor:";
+    private static final char SEPARATOR = ':';
+
+    private CursorUtil() {
+    }
+
+    public static String encode(Long id) {
+        return encode(id, null);
+    }
+
+    public static String encode(Long id, String sortValue) {
+        String value = sortValue == null ? PREFIX + id : PREFIX + id + SEPARATOR + sortValue;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        String payload = payload(cursor);
+        int separator = payload.indexOf(SEPARATOR);
+        try {
+            return Long.parseLong(separator < 0 ? payload : payload.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public static String decodeSortValue(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String payload = payload(cursor);
+        int separator = payload.indexOf(SEPARATOR);
+        return separator < 0 ? null : payload.substring(separator + 1);
+    }
+
+    private static String payload(String cursor) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (!value.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return value.substring(PREFIX.length());
+    }
+}
@@ -1,21 +1,41 @@
 package com.adhissoncedeno.backend.utils;
 
 import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.security.TokenVersionRegistry;
+import com.adhissoncedeno.backend.security.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenUtil {
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${jwt.secret:defaultSecretKeyWhichShouldBeAtLeast32CharactersLong}")
     private String secret;
 
@@ -27,6 +47,53 @@ public class JwtTokenUtil {
 //    @Value("${jwt.refreshExpiration:300000}")
     private Long refreshExpiration;
 
+    @Value("${jwt.verifiedCache.maximumSize:10000}")
+    private Long verifiedCacheMaximumSize;
+
+    @Value("${jwt.verifiedCache.maximumTtl:300000}")
+    private Long verifiedCacheMaximumTtl;
+
+    private SecretKey key;
+
+    private JwtParser parser;
+
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    private Timer generateTimer;
+
+    private Timer parseTimer;
+
+    private Timer parseFailedTimer;
+
+    private Timer cachedTimer;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaximumSize)
+                .expireAfter(new TokenExpiry(TimeUnit.MILLISECONDS.toNanos(verifiedCacheMaximumTtl)))
+                .build();
+        generateTimer = Timer.builder("jwt.generate")
+                .description("Time to build and sign a token")
+                .register(meterRegistry);
+        // jwt.verify: "cached" is a verified-token cache hit, "parsed" a full signature check.
+        parseTimer = verifyTimer("parsed", "success");
+        parseFailedTimer = verifyTimer("parsed", "failure");
+        cachedTimer = verifyTimer("cached", "success");
+    }
+
+    private Timer verifyTimer(String source, String outcome) {
+        return Timer.builder("jwt.verify")
+                .description("Time to verify a token")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("roles", userDetails.getAuthorities().stream()
@@ -34,7 +101,9 @@ public class JwtTokenUtil {
                 .collect(Collectors.toList()));
 
         if (userDetails instanceof CustomUserDetails) {
-            claims.put("userId", ((CustomUserDetails) userDetails).getId());
+            Long userId = ((CustomUserDetails) userDetails).getId();
+            claims.put("userId", userId);
+            claims.put("ver", tokenVersionRegistry.currentVersion(userId));
         }
 
         return createToken(claims, userDetails.getUsername(), expiration);
@@ -42,61 +111,134 @@ public class JwtTokenUtil {
 
     public String generateRefreshToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof CustomUserDetails) {
+            claims.put("ver", tokenVersionRegistry.currentVersion(((CustomUserDetails) userDetails).getId()));
+        }
         return createToken(claims, userDetails.getUsername(), refreshExpiration);
     }
 
     private String createToken(Map<String, Object> claims, String subject, Long expiration) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
-        return Jwts.builder()
+        return generateTimer.record(() -> Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(key)
-                .compact();
+                .compact());
+    }
+
+    /**
+     * Parses and verifies the token once. Tokens verified earlier are served from a cache keyed
+     * by the SHA-256 of the token, so the raw bearer value is never kept in memory; entries leave
+     * the cache no later than the token expires.
+     */
+    public VerifiedToken verify(String token) {
+        long start = System.nanoTime();
+        String cacheKey = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null && !cached.isExpired()) {
+            cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+
+        VerifiedToken verified;
+        try {
+            verified = new VerifiedToken(parser.parseClaimsJws(token).getBody());
+        } catch (RuntimeException e) {
+            parseFailedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        verifiedTokens.put(cacheKey, verified);
+        return verified;
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
+    }
+
+    public Boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        if (!token.getUsername().equals(userDetails.getUsername()) || token.isExpired()) {
+            return false;
+        }
+        if (userDetails instanceof CustomUserDetails) {
+            return tokenVersionRegistry.isCurrent(((CustomUserDetails) userDetails).getId(), token.getTokenVersion());
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds the principal from the {@code userId} and {@code roles} claims of an access token,
+     * so authenticated requests do not need to load the user from the database. Returns
+     * {@code null} for tokens without those claims (refresh tokens).
+     */
+    public CustomUserDetails toUserDetails(VerifiedToken token) {
+        Long userId = token.getUserId();
+        if (userId == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = token.getRoles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        return new CustomUserDetails(token.getUsername(), "", authorities, userId);
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getUsername();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).getExpiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return claimsResolver.apply(verify(token).getClaims());
     }
 
     public List<String> extractRoles(String token) {
-        return extractClaim(token, claims -> {
-            @SuppressWarnings("unchecked")
-            List<String> roles = claims.get("roles", List.class);
-            return roles != null ? roles : Collections.emptyList();
-        });
+        return verify(token).getRoles();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Long extractUserId(String token) {
+        return verify(token).getUserId();
     }
 
-    public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-}
\ No newline at end of file
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final long maximumTtlNanos;
+
+        TokenExpiry(long maximumTtlNanos) {
+            this.maximumTtlNanos = maximumTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Date expiration = value.getExpiration();
+            if (expiration == null) {
+                return maximumTtlNanos;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(untilExpiry, maximumTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
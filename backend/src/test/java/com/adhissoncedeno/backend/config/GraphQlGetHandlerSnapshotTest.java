@@ -0,0 +1,148 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.services.PostService;
+import com.adhissoncedeno.backend.services.PublicFeedSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// With the public feed snapshot enabled, its queries are revalidated without running them.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class GraphQlGetHandlerSnapshotTest {
+
+    private static final String QUERY = "query PublicFeed { findPublicPosts { id title } }";
+
+    private static final String PAGE_QUERY = "query Page($first: Int) { findPublicPostsPage(first: $first) { edges { node { id } } } }";
+
+    private static final String AUTHOR_QUERY = "query Authors { findPublicPosts { id author { username } } }";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PublicFeedSnapshot publicFeed;
+
+    @MockitoSpyBean
+    private PostService postService;
+
+    @BeforeEach
+    public void setUp() {
+        publicFeed.reconcile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reset(postService);
+    }
+
+    @Test
+    public void testRevalidationDoesNotRunTheQuery() throws Exception {
+        String etag = perform(get("/graphql").param("query", QUERY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.findPublicPosts").isArray())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        reset(postService);
+
+        perform(get("/graphql").param("query", QUERY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        verify(postService, times(0)).findPublicPosts(any());
+
+        // Written straight to the database; the snapshot, and with it the ETag, follows once
+        // it is reconciled.
+        insertPublicPost();
+        publicFeed.reconcile();
+
+        String changed = perform(get("/graphql").param("query", QUERY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.findPublicPosts").isArray())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    public void testVariablesArePartOfTheEtag() throws Exception {
+        String firstTwo = perform(get("/graphql").param("query", PAGE_QUERY).param("variables", "{\"first\":2}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        reset(postService);
+
+        perform(get("/graphql").param("query", PAGE_QUERY).param("variables", "{\"first\":3}")
+                .header(HttpHeaders.IF_NONE_MATCH, firstTwo))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+        verify(postService, times(1)).findPublicPostsPage(any(), any(), any());
+    }
+
+    @Test
+    public void testQueriesReadingAuthorsStillRun() throws Exception {
+        String etag = perform(get("/graphql").param("query", AUTHOR_QUERY))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        reset(postService);
+
+        // Revalidated against the hash of the body, so the query runs first.
+        perform(get("/graphql").param("query", AUTHOR_QUERY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(postService, times(1)).findPublicPosts(any());
+    }
+
+    private void insertPublicPost() {
+        User owner = new User();
+        owner.setUsername("snapshot-etag-owner-" + UUID.randomUUID());
+        owner.setPassword("password");
+        owner.setRole(Role.USER);
+        Long ownerId = userRepository.save(owner).getId();
+        jdbcTemplate.update("INSERT INTO posts (id, title, content, is_public, user_id) "
+                + "VALUES (NEXT VALUE FOR posts_seq, 'Direct', 'Written with SQL', 1, ?)", ownerId);
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            actions = mockMvc.perform(asyncDispatch(result));
+        }
+        return actions;
+    }
+}
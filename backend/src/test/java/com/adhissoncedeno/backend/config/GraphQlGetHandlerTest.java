@@ -0,0 +1,138 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.services.PostService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The public feed snapshot is disabled so findPublicPosts goes through PostService.
+@SpringBootTest(properties = "publicFeed.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class GraphQlGetHandlerTest {
+
+    private static final String QUERY = "query PublicFeed { findPublicPosts { id title } }";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private PostService postService;
+
+    @AfterEach
+    public void tearDown() {
+        reset(postService);
+    }
+
+    @Test
+    public void testAnonymousQueryIsRevalidatedWithEtag() throws Exception {
+        String etag = perform(get("/graphql").param("query", QUERY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.findPublicPosts").isArray())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("public")))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.AUTHORIZATION)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        perform(get("/graphql").param("query", QUERY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        // Written straight to the database: nothing in this process hears about it.
+        insertPublicPost();
+
+        String changed = perform(get("/graphql").param("query", QUERY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.findPublicPosts").isArray())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    public void testAuthenticatedResponsesAreNotStored() throws Exception {
+        CustomUserDetails principal = new CustomUserDetails("get-user", "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), 1L);
+
+        perform(get("/graphql").param("query", QUERY).with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.findPublicPosts").isArray())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+    }
+
+    @Test
+    public void testMutationsAreRejectedOverGet() throws Exception {
+        perform(get("/graphql").param("query", "mutation { deletePostById(id: 1) }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].extensions.code").value("METHOD_NOT_ALLOWED"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        verify(postService, times(0)).deleteById(any());
+    }
+
+    @Test
+    public void testVariablesMustBeJson() throws Exception {
+        mockMvc.perform(get("/graphql").param("query", QUERY).param("variables", "{"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void insertPublicPost() {
+        User owner = new User();
+        owner.setUsername("etag-owner-" + UUID.randomUUID());
+        owner.setPassword("password");
+        owner.setRole(Role.USER);
+        Long ownerId = userRepository.save(owner).getId();
+        jdbcTemplate.update("INSERT INTO posts (id, title, content, is_public, user_id) "
+                + "VALUES (NEXT VALUE FOR posts_seq, 'Direct', 'Written with SQL', 1, ?)", ownerId);
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            actions = mockMvc.perform(asyncDispatch(result));
+        }
+        return actions;
+    }
+}
@@ -0,0 +1,47 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.services.PostService;
+import com.adhissoncedeno.backend.services.PublicFeedSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Read-only transactions that never run a statement must not take a connection from the pool.
+@SpringBootTest
+@ActiveProfiles("test")
+public class LazyConnectionTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PublicFeedSnapshot publicFeed;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testSnapshotHitsDoNotCheckOutConnections() {
+        assertTrue(publicFeed.find(0L, 1, PostField.ALL).isPresent());
+        long before = checkouts();
+
+        postService.findPublicPosts(PostField.ALL);
+        postService.findPublicPostsPage(5, null, PostField.ALL);
+
+        assertEquals(before, checkouts());
+
+        postService.findAll(PostField.ALL);
+
+        assertEquals(before + 1, checkouts());
+    }
+
+    private long checkouts() {
+        return meterRegistry.get("hikaricp.connections.acquire").tag("pool", "primary").timer().count();
+    }
+}
@@ -0,0 +1,170 @@
+package com.adhissoncedeno.backend.config;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "publicFeed.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PersistedQueryProviderTest {
+
+    private static final String QUERY = "query PublicTitles { findPublicPosts { id title } }";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testHashOnlyRequestAfterRegistration() throws Exception {
+        String hash = PersistedQueryProvider.sha256(QUERY);
+
+        graphQl("{\"extensions\": " + persistedQuery(hash) + "}")
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+
+        graphQl("{\"query\": \"" + QUERY + "\", \"extensions\": " + persistedQuery(hash) + "}")
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.findPublicPosts").isArray());
+
+        graphQl("{\"extensions\": " + persistedQuery(hash) + "}")
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.findPublicPosts").isArray());
+    }
+
+    @Test
+    public void testHashMismatchIsRejected() throws Exception {
+        String hash = PersistedQueryProvider.sha256("{ findPublicPosts { id } }");
+
+        graphQl("{\"query\": \"" + QUERY + "\", \"extensions\": " + persistedQuery(hash) + "}")
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryIdInvalid"))
+                .andExpect(jsonPath("$.data").doesNotExist());
+    }
+
+    @Test
+    public void testPlainQueriesAreParsedOnce() {
+        PersistedQueryProvider provider = provider(false, "{}");
+        AtomicInteger parses = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            PreparsedDocumentEntry entry = provider.getDocumentAsync(ExecutionInput.newExecutionInput(QUERY).build(),
+                    input -> parse(input, parses)).join();
+            assertFalse(entry.hasErrors());
+        }
+
+        assertEquals(1, parses.get());
+    }
+
+    @Test
+    public void testInvalidDocumentsAreNotCached() {
+        PersistedQueryProvider provider = provider(false, "{}");
+        AtomicInteger parses = new AtomicInteger();
+        PreparsedDocumentEntry invalid = new PreparsedDocumentEntry(
+                GraphqlErrorBuilder.newError().message("invalid").build());
+
+        for (int i = 0; i < 2; i++) {
+            provider.getDocumentAsync(ExecutionInput.newExecutionInput("{ nope }").build(), input -> {
+                parses.incrementAndGet();
+                return invalid;
+            }).join();
+        }
+
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    public void testAllowListOnlyRunsManifestOperations() {
+        String manifest = """
+                {"format": "apollo-persisted-query-manifest", "version": 1, "operations": [
+                  {"id": "%s", "name": "PublicTitles", "type": "query", "body": "%s"}
+                ]}
+                """.formatted(PersistedQueryProvider.sha256(QUERY), QUERY);
+        PersistedQueryProvider provider = provider(true, manifest);
+        AtomicInteger parses = new AtomicInteger();
+
+        PreparsedDocumentEntry allowed = provider.getDocumentAsync(ExecutionInput.newExecutionInput()
+                .query("")
+                .extensions(Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", PersistedQueryProvider.sha256(QUERY))))
+                .build(), input -> parse(input, parses)).join();
+        PreparsedDocumentEntry sameText = provider.getDocumentAsync(ExecutionInput.newExecutionInput(QUERY).build(),
+                input -> parse(input, parses)).join();
+        PreparsedDocumentEntry other = provider.getDocumentAsync(
+                ExecutionInput.newExecutionInput("{ findAllPosts { id } }").build(), input -> parse(input, parses)).join();
+
+        assertFalse(allowed.hasErrors());
+        assertFalse(sameText.hasErrors());
+        assertTrue(other.hasErrors());
+        assertEquals("PersistedQueryNotAllowed", other.getErrors().get(0).getMessage());
+        assertEquals(1, parses.get());
+    }
+
+    @Test
+    public void testAllowListWithWrongIdFailsAtStartup() {
+        String manifest = """
+                {"operations": [{"id": "%s", "name": "PublicTitles", "body": "%s"}]}
+                """.formatted(PersistedQueryProvider.sha256("{ other }"), QUERY);
+
+        assertThrows(IllegalStateException.class, () -> provider(true, manifest));
+    }
+
+    private ResultActions graphQl(String body) throws Exception {
+        ResultActions actions = mockMvc.perform(post("/graphql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+        // Requests rejected before execution are answered without going async.
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            actions = mockMvc.perform(asyncDispatch(result));
+        }
+        return actions.andExpect(status().isOk());
+    }
+
+    private static String persistedQuery(String hash) {
+        return "{\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \"" + hash + "\"}}";
+    }
+
+    private static PreparsedDocumentEntry parse(ExecutionInput input, AtomicInteger parses) {
+        parses.incrementAndGet();
+        return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+    }
+
+    private static PersistedQueryProvider provider(boolean allowListOnly, String manifest) {
+        PersistedQueryProvider provider = new PersistedQueryProvider();
+        ReflectionTestUtils.setField(provider, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(provider, "cacheSize", 100L);
+        ReflectionTestUtils.setField(provider, "allowListOnly", allowListOnly);
+        ReflectionTestUtils.setField(provider, "allowListResource",
+                new ByteArrayResource(manifest.getBytes(StandardCharsets.UTF_8)));
+        try {
+            provider.init();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return provider;
+    }
+}
@@ -0,0 +1,138 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.services.PostService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// The public feed snapshot is disabled so findPublicPosts goes through PostService.
+@SpringBootTest(properties = {"publicFeed.enabled=false", "queryCost.maxDepth=4"})
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+public class QueryCostInstrumentationTest {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private PostService postService;
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        reset(postService);
+    }
+
+    @Test
+    public void testAliasedQueryOverBudgetIsRejectedBeforeResolvers() {
+        double rejectedBefore = rejectedCount();
+
+        graphQlTester.document(aliases("findPublicPosts { id title }", 5))
+                .execute()
+                .errors()
+                .satisfy(errors -> {
+                    assertEquals(1, errors.size());
+                    assertEquals("QUERY_TOO_COMPLEX", errors.get(0).getExtensions().get("code"));
+                });
+
+        verifyNoInteractions(postService);
+        assertEquals(rejectedBefore + 1, rejectedCount());
+    }
+
+    @Test
+    public void testBudgetDependsOnRole() {
+        String query = aliases("findAllPosts { id }", 10);
+
+        authenticate("ROLE_USER");
+        graphQlTester.document(query).execute().errors()
+                .satisfy(errors -> assertEquals("QUERY_TOO_COMPLEX", errors.get(0).getExtensions().get("code")));
+
+        authenticate("ROLE_ADMIN");
+        graphQlTester.document(query).execute().errors().verify();
+
+        graphQlTester.document(aliases("findAllPosts { id }", 200)).execute().errors()
+                .satisfy(errors -> assertEquals("QUERY_TOO_COMPLEX", errors.get(0).getExtensions().get("code")));
+    }
+
+    @Test
+    public void testPageSizeDrivesConnectionCost() {
+        graphQlTester.document("{ findPublicPostsPage(first: 10) { edges { node { id } } } }")
+                .execute()
+                .errors()
+                .verify();
+
+        graphQlTester.document("{ findPublicPostsPage(first: 100) { edges { node { id } } } "
+                        + aliases("findPublicPosts { id }", 4).replaceAll("^\\{|\\}$", "") + " }")
+                .execute()
+                .errors()
+                .satisfy(errors -> assertEquals("QUERY_TOO_COMPLEX", errors.get(0).getExtensions().get("code")));
+    }
+
+    @Test
+    public void testDeepQueryIsRejected() {
+        graphQlTester.document("{ findPublicPostsPage { edges { node { author { username } } } } }")
+                .execute()
+                .errors()
+                .satisfy(errors -> assertEquals("QUERY_TOO_DEEP", errors.get(0).getExtensions().get("code")));
+
+        verifyNoInteractions(postService);
+    }
+
+    @Test
+    public void testAcceptedCostIsRecorded() {
+        double acceptedBefore = acceptedCount();
+
+        graphQlTester.document("{ findPublicPosts { id } }").execute().errors().verify();
+
+        assertEquals(acceptedBefore + 1, acceptedCount());
+        assertTrue(meterRegistry.get("graphql.request.cost").tag("outcome", "accepted").summary().max() >= 500);
+    }
+
+    private double acceptedCount() {
+        return count("accepted");
+    }
+
+    private double rejectedCount() {
+        return count("rejected");
+    }
+
+    private double count(String outcome) {
+        var summary = meterRegistry.find("graphql.request.cost").tag("outcome", outcome).summary();
+        return summary != null ? summary.count() : 0;
+    }
+
+    private static String aliases(String field, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> "a" + i + ": " + field)
+                .collect(Collectors.joining(" ", "{ ", " }"));
+    }
+
+    private static void authenticate(String role) {
+        CustomUserDetails principal = new CustomUserDetails("cost-" + role, "",
+                List.of(new SimpleGrantedAuthority(role)), 1L);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
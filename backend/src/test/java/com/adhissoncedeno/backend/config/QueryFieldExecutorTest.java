@@ -0,0 +1,85 @@
+package com.adhissoncedeno.backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueryFieldExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private QueryFieldExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        executor = new QueryFieldExecutor();
+        ReflectionTestUtils.setField(executor, "environment",
+                new MockEnvironment().withProperty("queryExecutor.timeouts.slowField", "1500"));
+        ReflectionTestUtils.setField(executor, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(executor, "threads", 1);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+        ReflectionTestUtils.setField(executor, "defaultTimeout", 100L);
+        executor.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testTimedOutFieldReleasesThePoolThread() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> slow = executor.submit("findAllPosts", () -> {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                return "too late";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IllegalStateException(e);
+            }
+        });
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> slow.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, thrown.getCause());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        // The only pool thread is free again.
+        assertEquals("done", executor.submit("findAllPosts", () -> "done").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFieldRunsInReadOnlyTransactionWithMatchingTimeout() throws Exception {
+        executor.submit("slowField", () -> "done").get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        assertEquals(2, definition.getValue().getTimeout());
+    }
+}
@@ -0,0 +1,111 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostRequestDTO;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.services.PostService;
+import com.adhissoncedeno.backend.services.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two in-memory databases stand in for the primary (the one of the test profile) and a replica
+// that never receives the writes, so every read shows which of them it was sent to. The
+// second-level cache is off: it would answer the reads without asking either of them.
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "replicaDataSource.urls=" + ReadWriteRoutingTest.REPLICA_URL,
+        "replicaDataSource.username=sa",
+        "replicaDataSource.password=",
+        "replicaDataSource.readYourWritesWindow=60000"
+})
+@ActiveProfiles("test")
+public class ReadWriteRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    public static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testReadOnlyMethodsGoToTheReplica() {
+        User user = createUser();
+        authenticate(-1L);
+
+        assertNull(userService.findById(user.getId()));
+        assertTrue(transactionTemplate.execute(status -> userRepository.findById(user.getId())).isPresent());
+    }
+
+    @Test
+    public void testWriterReadsOwnWritesFromThePrimary() {
+        User writer = createUser();
+        authenticate(writer.getId());
+        assertTrue(postService.findByUserId(writer.getId(), PostField.ALL).isEmpty());
+
+        PostRequestDTO request = new PostRequestDTO();
+        request.setTitle("Routed post");
+        request.setContent("Written to the primary");
+        request.setPublic(true);
+        postService.save(request);
+
+        assertEquals(List.of("Routed post"), postService.findByUserId(writer.getId(), PostField.ALL).stream()
+                .map(post -> post.getTitle()).toList());
+
+        authenticate(-1L);
+        assertTrue(postService.findByUserId(writer.getId(), PostField.ALL).isEmpty());
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("routing-" + UUID.randomUUID());
+        user.setPassword("hash");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private static void authenticate(Long userId) {
+        CustomUserDetails principal = new CustomUserDetails("user-" + userId, "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), userId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
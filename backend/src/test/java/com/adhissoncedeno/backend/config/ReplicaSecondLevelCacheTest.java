@@ -0,0 +1,93 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Like ReadWriteRoutingTest, but with the second-level cache on: the replica holds an older copy
+// of a user, which must never make it into the cache.
+@SpringBootTest(properties = {
+        "replicaDataSource.urls=" + ReplicaSecondLevelCacheTest.REPLICA_URL,
+        "replicaDataSource.username=sa",
+        "replicaDataSource.password="
+})
+@ActiveProfiles("test")
+public class ReplicaSecondLevelCacheTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:cache-replica;MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    public static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testReplicaReadsDoNotFillTheCache() {
+        User user = new User();
+        user.setUsername("replica-cache-" + UUID.randomUUID());
+        user.setPassword("hash");
+        user.setRole(Role.ADMIN);
+        Long id = userRepository.save(user).getId();
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+                "INSERT INTO users (id, username, password, role) VALUES (?, ?, 'hash', 'USER')",
+                id, user.getUsername());
+        entityManagerFactory.getCache().evict(User.class, id);
+        authenticate(-1L);
+
+        assertEquals(Role.USER, userService.findById(id).getRole());
+        assertFalse(entityManagerFactory.getCache().contains(User.class, id));
+
+        assertEquals(Role.ADMIN, transactionTemplate.execute(status -> userRepository.findById(id)).get().getRole());
+        assertTrue(entityManagerFactory.getCache().contains(User.class, id));
+        assertEquals(Role.ADMIN, userService.findById(id).getRole());
+    }
+
+    private static void authenticate(Long userId) {
+        CustomUserDetails principal = new CustomUserDetails("user-" + userId, "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), userId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.adhissoncedeno.backend.config;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostRequestDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.entities.Post;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.services.PostService;
+import com.adhissoncedeno.backend.services.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testUsersAreReadFromTheCache() {
+        User user = createUser();
+        userService.findById(user.getId());
+        findByUsername(user.getUsername());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertEquals(user.getUsername(), userService.findById(user.getId()).getUsername());
+        assertEquals(user.getId(), findByUsername(user.getUsername()).get().getId());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(meterRegistry.get("cache.hit.ratio").tag("cache", "hibernate.users").gauge().value() > 0);
+        assertTrue(meterRegistry.get("cache.hit.ratio").tag("cache", "hibernate.usernames").gauge().value() > 0);
+    }
+
+    @Test
+    public void testUserWritesUpdateTheCache() {
+        User user = createUser();
+        findByUsername(user.getUsername());
+
+        userService.updateRole(user.getId(), Role.ADMIN);
+
+        assertEquals(Role.ADMIN, userService.findById(user.getId()).getRole());
+        assertEquals(Role.ADMIN, findByUsername(user.getUsername()).get().getRole());
+
+        userService.deleteById(user.getId());
+
+        assertNull(userService.findById(user.getId()));
+        assertTrue(findByUsername(user.getUsername()).isEmpty());
+    }
+
+    @Test
+    public void testPostsAreNotCached() {
+        User owner = createUser();
+        authenticate(owner);
+        PostResponseDTO created = postService.save(request(null, "Uncached title"));
+        assertEquals("Uncached title", findPost(created.getId()).get().getTitle());
+
+        assertFalse(entityManagerFactory.getCache().contains(Post.class, created.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(User.class, owner.getId()));
+
+        postService.update(request(created.getId(), "Updated title"));
+
+        // The bulk UPDATE on posts leaves the users region alone.
+        assertTrue(entityManagerFactory.getCache().contains(User.class, owner.getId()));
+        assertEquals("Updated title", findPost(created.getId()).get().getTitle());
+    }
+
+    private Optional<User> findByUsername(String username) {
+        return transactionTemplate.execute(status -> userRepository.findByUsername(username));
+    }
+
+    private Optional<Post> findPost(Long id) {
+        return transactionTemplate.execute(status -> postRepository.findById(id));
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("cached-" + UUID.randomUUID());
+        user.setPassword("hash");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+
+    private static PostRequestDTO request(Long id, String title) {
+        PostRequestDTO request = new PostRequestDTO();
+        request.setId(id);
+        request.setTitle(title);
+        request.setContent("Content");
+        request.setPublic(true);
+        return request;
+    }
+
+    private static void authenticate(User user) {
+        CustomUserDetails principal = new CustomUserDetails(user.getUsername(), "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), user.getId());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,125 @@
+package com.adhissoncedeno.backend.controllers;
+
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.services.PostService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest(properties = "queryExecutor.timeouts.findPostById=200")
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+public class ConcurrentRootFieldsTest {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private PostService postService;
+
+    @BeforeEach
+    public void setUp() {
+        User admin = userRepository.findByUsername("concurrent-admin").orElseGet(() -> {
+            User user = new User();
+            user.setUsername("concurrent-admin");
+            user.setPassword("password");
+            user.setRole(Role.ADMIN);
+            return userRepository.save(user);
+        });
+        CustomUserDetails principal = new CustomUserDetails(admin.getUsername(), "",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), admin.getId());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        reset(postService);
+    }
+
+    @Test
+    public void testSiblingRootFieldsRunConcurrentlyWithTheCallersSecurityContext() {
+        // Both resolvers wait for each other, so the document only completes if they run at once.
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        Map<String, String> principals = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            threads.put("myPosts", Thread.currentThread().getName());
+            principals.put("myPosts", SecurityContextHolder.getContext().getAuthentication().getName());
+            barrier.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(postService).findByUserId(any(), any());
+        doAnswer(invocation -> {
+            threads.put("findPublicPosts", Thread.currentThread().getName());
+            principals.put("findPublicPosts", SecurityContextHolder.getContext().getAuthentication().getName());
+            barrier.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(postService).findPublicPosts(any());
+
+        GraphQlTester.Response response = graphQlTester.document("""
+                query {
+                    myPosts { id }
+                    findPublicPosts { id }
+                    findAllUsers { username }
+                }
+                """)
+                .execute();
+
+        response.errors().verify();
+        List<String> usernames = response.path("findAllUsers[*].username").entityList(String.class).get();
+        assertEquals(true, usernames.contains("concurrent-admin"));
+        assertNotEquals(threads.get("myPosts"), threads.get("findPublicPosts"));
+        assertEquals("concurrent-admin", principals.get("myPosts"));
+        assertEquals("concurrent-admin", principals.get("findPublicPosts"));
+    }
+
+    @Test
+    public void testSlowFieldTimesOutWithoutFailingItsSiblings() {
+        doAnswer(invocation -> {
+            Thread.sleep(2000);
+            return invocation.callRealMethod();
+        }).when(postService).findById(any());
+
+        GraphQlTester.Response response = graphQlTester.document("""
+                query {
+                    findPostById(id: 1) { id }
+                    findAllUsers { username }
+                }
+                """)
+                .execute();
+
+        response.errors()
+                .expect(error -> error.getPath().equals("findPostById"))
+                .verify();
+        response.path("findPostById").valueIsNull();
+        response.path("findAllUsers").entityList(Object.class).hasSizeGreaterThan(0);
+    }
+}
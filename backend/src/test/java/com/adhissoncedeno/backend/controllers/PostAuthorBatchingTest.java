@@ -0,0 +1,103 @@
+package com.adhissoncedeno.backend.controllers;
+
+import com.adhissoncedeno.backend.model.entities.Post;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.utils.CursorUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The public feed snapshot is disabled so the page itself is read from the database, which is
+// this class's own so no other test's posts end up in it.
+@SpringBootTest(properties = {
+        "publicFeed.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:author-batching;MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+public class PostAuthorBatchingTest {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String after;
+
+    private List<String> expectedUsernames;
+
+    @BeforeEach
+    public void setUp() {
+        String run = UUID.randomUUID().toString();
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = new User();
+            user.setUsername("author" + i + "-" + run);
+            user.setPassword("password");
+            user.setRole(Role.USER);
+            authors.add(userRepository.save(user));
+        }
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Post post = new Post();
+            post.setTitle("Post " + i);
+            post.setContent("Content " + i);
+            post.setPublic(true);
+            post.setUser(authors.get(i % authors.size()));
+            posts.add(post);
+        }
+        List<Post> saved = postRepository.saveAll(posts);
+
+        // The page starts right before the posts created here, after the ones the migrations seed.
+        after = CursorUtil.encode(saved.get(0).getId() - 1);
+        expectedUsernames = saved.subList(0, 100).stream()
+                .map(post -> post.getUser().getUsername())
+                .toList();
+    }
+
+    @Test
+    public void testAuthorsOfAPageAreLoadedWithOneQuery() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<String> usernames = graphQlTester.document("""
+                query ($after: String) {
+                    findPublicPostsPage(first: 100, after: $after) {
+                        edges { node { id title author { id username } } }
+                    }
+                }
+                """)
+                .variable("after", after)
+                .execute()
+                .path("findPublicPostsPage.edges[*].node.author.username")
+                .entityList(String.class)
+                .get();
+
+        assertEquals(expectedUsernames, usernames);
+        // One statement for the page of posts and one for all of their authors.
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
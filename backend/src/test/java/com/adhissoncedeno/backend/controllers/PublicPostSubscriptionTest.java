@@ -0,0 +1,193 @@
+package com.adhissoncedeno.backend.controllers;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostRequestDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PublicPostChangeDTO;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.PostChangeType;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.services.PostService;
+import com.adhissoncedeno.backend.services.PublicPostEvents;
+import com.adhissoncedeno.backend.services.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.Disposable;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@ActiveProfiles("test")
+public class PublicPostSubscriptionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PublicPostEvents publicPostEvents;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testPublicPostChangesArePushedOverWebSocket() throws Exception {
+        BlockingQueue<JsonNode> messages = new LinkedBlockingQueue<>();
+        WebSocket webSocket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .subprotocols("graphql-transport-ws")
+                .buildAsync(URI.create("ws://localhost:" + port + "/graphql"), new WebSocket.Listener() {
+                    private final StringBuilder text = new StringBuilder();
+
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        text.append(data);
+                        if (last) {
+                            try {
+                                messages.add(objectMapper.readTree(text.toString()));
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                            text.setLength(0);
+                        }
+                        webSocket.request(1);
+                        return null;
+                    }
+                })
+                .get(5, TimeUnit.SECONDS);
+
+        webSocket.sendText("{\"type\": \"connection_init\"}", true).get(5, TimeUnit.SECONDS);
+        assertEquals("connection_ack", poll(messages).path("type").asText());
+        await(() -> meterRegistry.get("graphql.websocket.connections").gauge().value(), 1);
+
+        webSocket.sendText("""
+                {"id": "1", "type": "subscribe", "payload": {"query": "subscription { publicPostChanged { type postId post { title } } }"}}
+                """, true).get(5, TimeUnit.SECONDS);
+        await(() -> meterRegistry.get("graphql.subscriptions.active").gauge().value(), 1);
+
+        PostRequestDTO request = new PostRequestDTO();
+        request.setTitle("Live post");
+        request.setContent("Pushed to subscribers");
+        request.setPublic(true);
+        request.setUserId(owner().getId());
+        Long postId = postService.save(request).getId();
+
+        JsonNode next = poll(messages);
+        assertEquals("next", next.path("type").asText());
+        JsonNode change = next.path("payload").path("data").path("publicPostChanged");
+        assertEquals("CREATED", change.path("type").asText());
+        assertEquals(postId.toString(), change.path("postId").asText());
+        assertEquals("Live post", change.path("post").path("title").asText());
+
+        webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").get(5, TimeUnit.SECONDS);
+        await(() -> meterRegistry.get("graphql.websocket.connections").gauge().value(), 0);
+        await(() -> meterRegistry.get("graphql.subscriptions.active").gauge().value(), 0);
+    }
+
+    @Test
+    public void testBulkWritesAndUserDeletionArePublished() throws Exception {
+        User user = new User();
+        user.setUsername("bulk-subscription-owner");
+        user.setPassword("password");
+        user.setRole(Role.USER);
+        Long userId = userRepository.save(user).getId();
+
+        BlockingQueue<PublicPostChangeDTO> changes = new LinkedBlockingQueue<>();
+        Disposable subscription = publicPostEvents.subscribe().subscribe(changes::add);
+        try {
+            await(() -> meterRegistry.get("graphql.subscriptions.active").gauge().value(), 1);
+
+            List<PostResponseDTO> created = postService.saveAll(List.of(
+                    request("First", true, userId), request("Hidden", false, userId), request("Second", true, userId)));
+            Long first = created.get(0).getId();
+            Long second = created.get(2).getId();
+            assertChange(changes, PostChangeType.CREATED, first);
+            assertChange(changes, PostChangeType.CREATED, second);
+
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    userId.toString(), null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+            postService.deleteAllByIds(List.of(first, created.get(1).getId()));
+            assertChange(changes, PostChangeType.DELETED, first);
+
+            userService.deleteById(userId);
+            assertChange(changes, PostChangeType.DELETED, second);
+            assertNull(changes.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            SecurityContextHolder.clearContext();
+            subscription.dispose();
+        }
+    }
+
+    private static PostRequestDTO request(String title, boolean isPublic, Long userId) {
+        PostRequestDTO request = new PostRequestDTO();
+        request.setTitle(title);
+        request.setContent("Bulk");
+        request.setPublic(isPublic);
+        request.setUserId(userId);
+        return request;
+    }
+
+    private static void assertChange(BlockingQueue<PublicPostChangeDTO> changes, PostChangeType type, Long postId)
+            throws InterruptedException {
+        PublicPostChangeDTO change = changes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(change, "no change received");
+        assertEquals(type, change.getType());
+        assertEquals(postId, change.getPostId());
+    }
+
+    private User owner() {
+        return userRepository.findByUsername("subscription-owner").orElseGet(() -> {
+            User user = new User();
+            user.setUsername("subscription-owner");
+            user.setPassword("password");
+            user.setRole(Role.USER);
+            return userRepository.save(user);
+        });
+    }
+
+    private static JsonNode poll(BlockingQueue<JsonNode> messages) throws InterruptedException {
+        JsonNode message = messages.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message, "no message received");
+        return message;
+    }
+
+    private static void await(DoubleSupplier value, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (value.getAsDouble() != expected) {
+            assertTrue(System.nanoTime() < deadline, "expected " + expected + " but was " + value.getAsDouble());
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.adhissoncedeno.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The public feed snapshot is disabled so findPublicPosts reads from the database.
+@SpringBootTest(properties = "publicFeed.enabled=false")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+public class GraphQlMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    @Test
+    public void testOperationsFieldsAndStatementsAreTimed() throws Exception {
+        DistributionSummary statements = meterRegistry.get("graphql.request.statements").summary();
+        long requestsBefore = statements.count();
+        double statementsBefore = statements.totalAmount();
+
+        graphQl("""
+                {"query": "query PublicFeed { findPublicPosts { id title } }", "operationName": "PublicFeed"}
+                """);
+
+        assertEquals(1, meterRegistry.get("graphql.request")
+                .tag("graphql.operation.name", "PublicFeed").timer().count());
+        assertTrue(meterRegistry.get("graphql.datafetcher")
+                .tag("graphql.field.name", "findPublicPosts").timer().count() >= 1);
+        assertEquals(requestsBefore + 1, statements.count());
+        assertTrue(statements.totalAmount() - statementsBefore >= 1);
+    }
+
+    @Test
+    public void testLoginRecordsBcryptAndJwtTimers() throws Exception {
+        graphQl("""
+                {"query": "mutation Login { login(username: \\"user\\", password: \\"olaola\\") { token } }"}
+                """);
+
+        assertTrue(meterRegistry.get("bcrypt.matches").timer().count() >= 1);
+        assertTrue(meterRegistry.get("jwt.generate").timer().count() >= 1);
+    }
+
+    @Test
+    public void testPrometheusScrapeHasHistograms() throws Exception {
+        graphQl("""
+                {"query": "query PublicFeed { findPublicPosts { id } }", "operationName": "PublicFeed"}
+                """);
+
+        String scrape = prometheusMeterRegistry.scrape();
+
+        assertTrue(scrape.contains("graphql_request_seconds_bucket"));
+        assertTrue(scrape.contains("graphql_operation_name=\"PublicFeed\""));
+        assertTrue(scrape.contains("graphql_datafetcher_seconds_bucket"));
+        assertTrue(scrape.contains("graphql_request_statements"));
+    }
+
+    private void graphQl(String body) throws Exception {
+        ResultActions actions = mockMvc.perform(post("/graphql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+        MvcResult result = actions.andReturn();
+        // The response is written right away when the resolvers finish before the handler returns.
+        if (result.getRequest().isAsyncStarted()) {
+            actions = mockMvc.perform(asyncDispatch(result));
+        }
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").doesNotExist());
+    }
+}
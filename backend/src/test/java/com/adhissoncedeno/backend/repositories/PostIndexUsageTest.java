@@ -0,0 +1,265 @@
+package com.adhissoncedeno.backend.repositories;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.dtos.request.PostOrderDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.model.enums.PostOrderField;
+import com.adhissoncedeno.backend.model.enums.SortDirection;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every filter/order combination supported by the posts query, first page and a page after
+ * a cursor, and checks the execution plan of the SQL Hibernate generated for it. Filtered pages
+ * must seek an index; the unfiltered first page may read an index in order and stop after the
+ * page, but never scan the table. The index must also return the rows already in the requested
+ * order, except when a range on another column (title prefix, creation dates) leads the seek.
+ */
+@SpringBootTest(properties = {
+        "publicFeed.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:post-indexes;MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.adhissoncedeno.backend.repositories.PostIndexUsageTest$SqlCapture"
+})
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+public class PostIndexUsageTest {
+
+    protected static final int POSTS = 5000;
+    protected static final int AUTHORS = 50;
+    protected static final int PAGE = 20;
+    protected static final LocalDateTime FIRST_CREATED_AT = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @BeforeEach
+    public void setUp() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts", Integer.class);
+        if (count != null && count >= POSTS) {
+            return;
+        }
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < AUTHORS; i++) {
+            users.add(new Object[]{"index-author" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password, role) VALUES (?, 'password', 'USER')", users);
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'index-author%' ORDER BY id", Long.class);
+
+        List<Object[]> posts = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            posts.add(new Object[]{
+                    (char) ('A' + i % 26) + " post " + i,
+                    "Content " + i,
+                    userIds.get(i % AUTHORS),
+                    i % 3 != 0,
+                    Timestamp.valueOf(FIRST_CREATED_AT.plusMinutes(i))
+            });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO posts (title, content, user_id, is_public, created_at) VALUES (?, ?, ?, ?, ?)", posts);
+        updateStatistics();
+    }
+
+    protected void updateStatistics() {
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    public void testEveryFilterAndOrderUsesAnIndex() {
+        Long userId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM users WHERE username LIKE 'index-author%'", Long.class);
+        Instant from = FIRST_CREATED_AT.plusMinutes(POSTS / 2).toInstant(ZoneOffset.UTC);
+        Instant to = from.plus(POSTS / 10, ChronoUnit.MINUTES);
+
+        Map<String, Consumer<PostFilterDTO>> filters = new LinkedHashMap<>();
+        filters.put("none", filter -> {
+        });
+        filters.put("userId", filter -> filter.setUserId(userId));
+        filters.put("public", filter -> filter.setIsPublic(true));
+        filters.put("userId+public", filter -> {
+            filter.setUserId(userId);
+            filter.setIsPublic(true);
+        });
+        filters.put("titlePrefix", filter -> filter.setTitlePrefix("K"));
+        filters.put("public+titlePrefix", filter -> {
+            filter.setIsPublic(true);
+            filter.setTitlePrefix("K");
+        });
+        filters.put("userId+titlePrefix", filter -> {
+            filter.setUserId(userId);
+            filter.setTitlePrefix("K");
+        });
+        filters.put("created", filter -> {
+            filter.setCreatedAfter(from);
+            filter.setCreatedBefore(to);
+        });
+        filters.put("public+created", filter -> {
+            filter.setIsPublic(true);
+            filter.setCreatedAfter(from);
+            filter.setCreatedBefore(to);
+        });
+        filters.put("userId+created", filter -> {
+            filter.setUserId(userId);
+            filter.setCreatedAfter(from);
+            filter.setCreatedBefore(to);
+        });
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Consumer<PostFilterDTO>> entry : filters.entrySet()) {
+            for (PostOrderField field : PostOrderField.values()) {
+                for (SortDirection direction : SortDirection.values()) {
+                    PostFilterDTO filter = new PostFilterDTO();
+                    entry.getValue().accept(filter);
+                    PostOrderDTO order = new PostOrderDTO(field, direction);
+                    boolean filtered = !"none".equals(entry.getKey());
+                    boolean sorted = !(filter.getTitlePrefix() != null && field != PostOrderField.TITLE)
+                            && !(filter.getCreatedAfter() != null && field != PostOrderField.CREATED_AT);
+                    boolean equality = filter.getUserId() != null || filter.getIsPublic() != null;
+
+                    String firstSql = capture(() -> postRepository.findFiltered(
+                            filter, order, EnumSet.of(PostField.TITLE), null, null, PAGE + 1));
+                    List<PostResponseDTO> firstPage = postRepository.findFiltered(
+                            filter, order, EnumSet.of(PostField.TITLE), null, null, PAGE + 1);
+                    assertFalse(firstPage.isEmpty(), entry.getKey());
+                    PostResponseDTO last = firstPage.get(firstPage.size() - 1);
+                    Object afterValue = field.parseCursorValue(field.cursorValue(last));
+                    String nextSql = capture(() -> postRepository.findFiltered(
+                            filter, order, EnumSet.of(PostField.TITLE), last.getId(), afterValue, PAGE + 1));
+
+                    String combination = entry.getKey() + " by " + field + " " + direction;
+                    checkPlan(combination + " (first page)", firstSql, filtered, sorted, equality, failures);
+                    checkPlan(combination + " (after cursor)", nextSql, true, sorted, equality, failures);
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            fail(String.join("\n\n", failures));
+        }
+    }
+
+    @Test
+    public void testPostsQueryFiltersSortsAndPages() {
+        String document = """
+                query($after: String) {
+                    posts(filter: {titlePrefix: "K", createdAfter: "2024-01-02T00:00:00Z"},
+                          orderBy: {field: CREATED_AT, direction: DESC}, first: 5, after: $after) {
+                        edges { node { id title isPublic createdAt } }
+                        pageInfo { hasNextPage endCursor }
+                    }
+                }
+                """;
+
+        GraphQlTester.Response first = graphQlTester.document(document).execute();
+        List<String> createdAt = first.path("posts.edges[*].node.createdAt").entityList(String.class).get();
+        List<String> titles = first.path("posts.edges[*].node.title").entityList(String.class).get();
+        List<Boolean> visibility = first.path("posts.edges[*].node.isPublic").entityList(Boolean.class).get();
+        String endCursor = first.path("posts.pageInfo.endCursor").entity(String.class).get();
+
+        assertEquals(5, createdAt.size());
+        assertTrue(titles.stream().allMatch(title -> title.startsWith("K")));
+        assertTrue(visibility.stream().allMatch(Boolean::booleanValue));
+        for (int i = 1; i < createdAt.size(); i++) {
+            assertTrue(Instant.parse(createdAt.get(i - 1)).isAfter(Instant.parse(createdAt.get(i))));
+        }
+
+        List<String> next = graphQlTester.document(document).variable("after", endCursor).execute()
+                .path("posts.edges[*].node.createdAt").entityList(String.class).get();
+        assertEquals(5, next.size());
+        assertTrue(Instant.parse(createdAt.get(4)).isAfter(Instant.parse(next.get(0))));
+    }
+
+    protected String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+    }
+
+    // H2 prints the index it reads as /* PUBLIC.index: condition */; without a condition it is a
+    // full read of that index, and "tableScan" is a full read of the table. "index sorted" means
+    // no sort step, so the read stops after the page. H2 only reports it when the order matches
+    // the leading index columns, so it is not expected after an equality on user_id/is_public.
+    protected boolean isIndexed(String sql, boolean filtered, boolean sorted, boolean equality, StringBuilder plan) {
+        String explained = explain(sql);
+        plan.append(explained);
+        if (explained.contains("tableScan")) {
+            return false;
+        }
+        if (sorted && !equality && !explained.contains("/* index sorted */")) {
+            return false;
+        }
+        return !filtered || explained.matches("(?s).*/\\* PUBLIC\\.\\w+: .*");
+    }
+
+    private void checkPlan(String combination, String sql, boolean filtered, boolean sorted, boolean equality,
+                           List<String> failures) {
+        StringBuilder plan = new StringBuilder();
+        if (!isIndexed(sql, filtered, sorted, equality, plan)) {
+            failures.add(combination + ":\n" + plan);
+        }
+    }
+
+    private static String capture(Runnable query) {
+        SqlCapture.CAPTURED.remove();
+        query.run();
+        String sql = SqlCapture.CAPTURED.get();
+        assertTrue(sql != null && sql.contains("posts"), "No SQL captured");
+        return sql;
+    }
+
+    public static class SqlCapture implements StatementInspector {
+
+        static final ThreadLocal<String> CAPTURED = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            CAPTURED.set(sql);
+            return sql;
+        }
+    }
+}
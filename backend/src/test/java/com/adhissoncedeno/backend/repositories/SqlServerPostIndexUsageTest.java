@@ -0,0 +1,99 @@
+package com.adhissoncedeno.backend.repositories;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Same combinations as {@link PostIndexUsageTest}, checked against the cached execution plans of a
+ * real SQL Server, where the filtered indexes exist. Run it against an empty scratch database:
+ * {@code mvn test -Dtest=SqlServerPostIndexUsageTest -Dmssql.url=jdbc:sqlserver://host:1433;databaseName=posts_plans;encrypt=false;sendStringParametersAsUnicode=false -Dmssql.password=...}
+ */
+@EnabledIfSystemProperty(named = "mssql.url", matches = ".+")
+public class SqlServerPostIndexUsageTest extends PostIndexUsageTest {
+
+    @DynamicPropertySource
+    static void sqlServer(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("mssql.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("mssql.username", "sa"));
+        registry.add("spring.datasource.password", () -> System.getProperty("mssql.password", ""));
+        registry.add("spring.datasource.driver-class-name", () -> "com.microsoft.sqlserver.jdbc.SQLServerDriver");
+    }
+
+    @Override
+    protected void updateStatistics() {
+        jdbcTemplate.execute("UPDATE STATISTICS posts WITH FULLSCAN");
+    }
+
+    // The query has just run, so its plan is in the plan cache. The driver sends it with its
+    // parameters renamed to @P0, @P1...
+    @Override
+    protected String explain(String sql) {
+        StringBuilder text = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                text.append("@P").append(parameter++);
+            } else {
+                text.append(c);
+            }
+        }
+        List<String> plans = jdbcTemplate.queryForList("""
+                SELECT TOP 1 CAST(qp.query_plan AS NVARCHAR(MAX))
+                FROM sys.dm_exec_query_stats qs
+                CROSS APPLY sys.dm_exec_sql_text(qs.sql_handle) st
+                CROSS APPLY sys.dm_exec_query_plan(qs.plan_handle) qp
+                WHERE CHARINDEX(?, st.text) > 0
+                ORDER BY qs.last_execution_time DESC
+                """, String.class, text.toString());
+        if (plans.isEmpty()) {
+            throw new IllegalStateException("No cached plan for " + text);
+        }
+        return plans.get(0);
+    }
+
+    // SQL Server understands that an equality on the leading columns leaves the rest in index
+    // order, so the equality flag is not needed here.
+    @Override
+    protected boolean isIndexed(String sql, boolean filtered, boolean sorted, boolean equality, StringBuilder plan) {
+        List<String> operators = physicalOperators(explain(sql));
+        plan.append(operators);
+        if (operators.contains("Table Scan")) {
+            return false;
+        }
+        if (sorted && operators.contains("Sort")) {
+            return false;
+        }
+        boolean scans = operators.contains("Index Scan") || operators.contains("Clustered Index Scan");
+        if (!filtered) {
+            return !scans || !operators.contains("Sort");
+        }
+        return !scans && (operators.contains("Index Seek") || operators.contains("Clustered Index Seek"));
+    }
+
+    private static List<String> physicalOperators(String planXml) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(planXml)));
+            NodeList relOps = document.getElementsByTagNameNS("*", "RelOp");
+            List<String> operators = new ArrayList<>();
+            for (int i = 0; i < relOps.getLength(); i++) {
+                operators.add(((Element) relOps.item(i)).getAttribute("PhysicalOp"));
+            }
+            return operators;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan", e);
+        }
+    }
+}
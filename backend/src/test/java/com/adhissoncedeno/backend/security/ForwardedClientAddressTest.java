@@ -0,0 +1,51 @@
+package com.adhissoncedeno.backend.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"management.server.port=0", "rateLimit.createUser.capacity=1",
+                "rateLimit.createUser.perMinute=1"})
+@ActiveProfiles("test")
+public class ForwardedClientAddressTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testAnonymousCallsFromATrustedProxyAreLimitedPerForwardedAddress() throws Exception {
+        assertTrue(createUser("forwarded-0", "203.0.113.7").path("errors").isMissingNode());
+        assertEquals("RATE_LIMITED",
+                createUser("forwarded-1", "203.0.113.7").at("/errors/0/extensions/code").asText());
+        assertTrue(createUser("forwarded-2", "203.0.113.8").path("errors").isMissingNode());
+    }
+
+    private JsonNode createUser(String username, String forwardedFor) throws Exception {
+        String query = "mutation { createUser(userRequest: {username: \\\"" + username
+                + "\\\", password: \\\"password\\\"}) { id } }";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/graphql"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"query\": \"" + query + "\"}"))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,141 @@
+package com.adhissoncedeno.backend.security;
+
+import com.adhissoncedeno.backend.services.PostService;
+import com.adhissoncedeno.backend.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"rateLimit.createUser.capacity=2", "rateLimit.createUser.perMinute=1",
+        "rateLimit.createPost.capacity=3", "rateLimit.createPost.perMinute=1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class RateLimitInstrumentationTest {
+
+    private static final String POST_INPUT = "{title: \"Title\", content: \"Content\", public: true}";
+
+    private static final String POST_VARIABLE = "{\"title\": \"Title\", \"content\": \"Content\", \"public\": true}";
+
+    @Value("${posts.maxBatchSize}")
+    private int maxBatchSize;
+
+    @Value("${posts.maxDeleteSize}")
+    private int maxDeleteSize;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private UserService userService;
+
+    @MockitoSpyBean
+    private PostService postService;
+
+    @AfterEach
+    public void tearDown() {
+        reset(userService, postService);
+    }
+
+    @Test
+    public void testAnonymousCallsAreLimitedPerAddress() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            createUser("rate-" + i, "10.1.0.1")
+                    .andExpect(jsonPath("$.errors").doesNotExist())
+                    .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+        }
+
+        createUser("rate-2", "10.1.0.1")
+                .andExpect(jsonPath("$.errors[0].extensions.code").value("RATE_LIMITED"))
+                .andExpect(jsonPath("$.errors[0].extensions.retryAfter").value(greaterThan(0)))
+                .andExpect(jsonPath("$.errors[0].path[0]").value("createUser"))
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        createUser("rate-3", "10.1.0.2")
+                .andExpect(jsonPath("$.errors").doesNotExist());
+
+        verify(userService, times(3)).create(any());
+    }
+
+    @Test
+    public void testFullBatchesAreAcceptedOnAFullBucket() throws Exception {
+        doReturn(List.of()).when(postService).saveAll(any());
+        doReturn(List.of()).when(postService).deleteAllByIds(any());
+        doReturn(null).when(postService).save(any());
+        CustomUserDetails principal = new CustomUserDetails("rate-poster", "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), 77L);
+        String posts = "[" + String.join(", ", Collections.nCopies(maxBatchSize, POST_VARIABLE)) + "]";
+        String ids = "[" + String.join(", ", Collections.nCopies(maxDeleteSize, "\"1\"")) + "]";
+
+        mutation(principal, "($posts: [PostRequestInput!]!) { createPosts(postRequests: $posts) { id } }",
+                "{\"posts\": " + posts + "}")
+                .andExpect(jsonPath("$.errors").doesNotExist());
+        mutation(principal, "($ids: [ID!]!) { deletePostsByIds(ids: $ids) { id } }", "{\"ids\": " + ids + "}")
+                .andExpect(jsonPath("$.errors").doesNotExist());
+        mutation(principal, " { createPost(postRequest: " + POST_INPUT + ") { id } }", "{}")
+                .andExpect(jsonPath("$.errors").doesNotExist());
+        mutation(principal, "($posts: [PostRequestInput!]!) { createPosts(postRequests: $posts) { id } }",
+                "{\"posts\": " + posts + "}")
+                .andExpect(jsonPath("$.errors[0].extensions.code").value("RATE_LIMITED"))
+                .andExpect(jsonPath("$.errors[0].extensions.retryAfter").value(greaterThan(0)));
+
+        verify(postService, times(1)).saveAll(any());
+        verify(postService, times(1)).deleteAllByIds(any());
+        verify(postService, times(1)).save(any());
+    }
+
+    private ResultActions mutation(CustomUserDetails principal, String operation, String variables) throws Exception {
+        ResultActions actions = mockMvc.perform(post("/graphql")
+                .with(user(principal))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\": \"mutation" + operation.replace("\"", "\\\"") + "\", \"variables\": "
+                        + variables + "}"));
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            actions = mockMvc.perform(asyncDispatch(result));
+        }
+        return actions.andExpect(status().isOk());
+    }
+
+    private ResultActions createUser(String username, String address) throws Exception {
+        ResultActions actions = mockMvc.perform(post("/graphql")
+                .with(request -> {
+                    request.setRemoteAddr(address);
+                    request.setRemoteHost(address);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\": \"mutation { createUser(userRequest: {username: \\\"" + username
+                        + "\\\", password: \\\"password\\\"}) { id } }\"}"));
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            actions = mockMvc.perform(asyncDispatch(result));
+        }
+        return actions.andExpect(status().isOk());
+    }
+}
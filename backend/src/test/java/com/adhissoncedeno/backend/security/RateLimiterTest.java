@@ -0,0 +1,95 @@
+package com.adhissoncedeno.backend.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setUp() {
+        rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "environment", new MockEnvironment()
+                .withProperty("rateLimit.login.capacity", "3")
+                .withProperty("rateLimit.login.perMinute", "1")
+                .withProperty("rateLimit.createPost.capacity", "5")
+                .withProperty("rateLimit.createPosts.budget", "createPost"));
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "maxKeys", 100L);
+        ReflectionTestUtils.setField(rateLimiter, "idleTimeout", 600000L);
+        rateLimiter.init();
+    }
+
+    @Test
+    public void testBurstThenRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Duration.ZERO, rateLimiter.tryAcquire("login", "ip:10.0.0.1"));
+        }
+
+        Duration retryAfter = rateLimiter.tryAcquire("login", "ip:10.0.0.1");
+
+        assertTrue(retryAfter.compareTo(Duration.ofSeconds(55)) > 0);
+        assertTrue(retryAfter.compareTo(Duration.ofSeconds(60)) <= 0);
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("login", "ip:10.0.0.2"));
+    }
+
+    @Test
+    public void testOperationsWithoutCapacityAreNotLimited() {
+        assertTrue(rateLimiter.isLimited("login"));
+        assertFalse(rateLimiter.isLimited("refreshToken"));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Duration.ZERO, rateLimiter.tryAcquire("refreshToken", "ip:10.0.0.1"));
+        }
+    }
+
+    @Test
+    public void testBatchesShareTheBudgetOfTheSingleOperation() {
+        assertTrue(rateLimiter.isLimited("createPosts"));
+        assertEquals(5, rateLimiter.capacity("createPosts"));
+        assertEquals(Long.MAX_VALUE, rateLimiter.capacity("refreshToken"));
+
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("createPosts", "user:1", 4));
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("createPost", "user:1"));
+        assertTrue(rateLimiter.tryAcquire("createPost", "user:1").compareTo(Duration.ZERO) > 0);
+        assertTrue(rateLimiter.tryAcquire("createPosts", "user:1", 2).compareTo(Duration.ZERO) > 0);
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("createPosts", "user:2", 5));
+    }
+
+    @Test
+    public void testDisabled() {
+        ReflectionTestUtils.setField(rateLimiter, "enabled", false);
+
+        assertFalse(rateLimiter.isLimited("login"));
+    }
+
+    @Test
+    public void testBucketRefillsOverTime() {
+        RateLimiter.TokenBucket bucket = new RateLimiter.TokenBucket(2, 10 * SECOND);
+        long now = 1_000 * SECOND;
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(10 * SECOND, bucket.tryAcquire(now));
+        assertEquals(4 * SECOND, bucket.tryAcquire(now + 6 * SECOND));
+        assertEquals(0, bucket.tryAcquire(now + 10 * SECOND));
+        assertEquals(10 * SECOND, bucket.tryAcquire(now + 10 * SECOND));
+
+        // An idle bucket never holds more than its capacity.
+        long later = now + 3_600 * SECOND;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(10 * SECOND, bucket.tryAcquire(later));
+    }
+}
@@ -0,0 +1,96 @@
+package com.adhissoncedeno.backend.security;
+
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TokenVersionRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        user = new User();
+        user.setId(7L);
+        when(userRepository.findById(7L)).thenAnswer(invocation -> Optional.of(user));
+        when(userRepository.findTokenVersionById(7L)).thenAnswer(invocation -> Optional.of(user.getTokenVersion()));
+    }
+
+    @Test
+    public void testVersionIsCached() {
+        TokenVersionRegistry registry = registry();
+
+        assertTrue(registry.isCurrent(7L, 0));
+        assertTrue(registry.isCurrent(7L, 0));
+
+        verify(userRepository, times(1)).findTokenVersionById(7L);
+    }
+
+    @Test
+    public void testRevocationSurvivesRestart() {
+        TokenVersionRegistry registry = registry();
+        assertTrue(registry.isCurrent(7L, 0));
+
+        registry.revoke(7L);
+
+        assertEquals(1, user.getTokenVersion());
+        assertFalse(registry.isCurrent(7L, 0));
+        TokenVersionRegistry restarted = registry();
+        assertFalse(restarted.isCurrent(7L, 0));
+        assertTrue(restarted.isCurrent(7L, 1));
+    }
+
+    @Test
+    public void testDeletedUserHasNoCurrentVersion() {
+        TokenVersionRegistry registry = registry();
+        assertTrue(registry.isCurrent(7L, 0));
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.empty());
+
+        registry.evict(7L);
+
+        assertFalse(registry.isCurrent(7L, 0));
+    }
+
+    private TokenVersionRegistry registry() {
+        TokenVersionRegistry registry = new TokenVersionRegistry();
+        ReflectionTestUtils.setField(registry, "userRepository", userRepository);
+        ReflectionTestUtils.setField(registry, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(registry, "maximumSize", 100L);
+        ReflectionTestUtils.setField(registry, "expireAfterWrite", 60000L);
+        registry.init();
+        return registry;
+    }
+}
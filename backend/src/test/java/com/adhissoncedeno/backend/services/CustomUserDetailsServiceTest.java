@@ -0,0 +1,134 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private CustomUserDetailsService userDetailsService;
+
+    private User testUser;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(userDetailsService, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(userDetailsService, "cacheExpireAfterWrite", 60000L);
+        userDetailsService.init();
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setPassword("hash");
+        testUser.setRole(Role.USER);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+    }
+
+    @Test
+    public void testLoadUserByUsernameIsCached() {
+        UserDetails first = userDetailsService.loadUserByUsername("testuser");
+        UserDetails second = userDetailsService.loadUserByUsername("testuser");
+
+        verify(userRepository, times(1)).findByUsername("testuser");
+        assertNotSame(first, second);
+        assertEquals(1L, ((CustomUserDetails) second).getId());
+        assertEquals(1, userDetailsService.getCacheStats().getHitCount());
+        assertEquals(1, userDetailsService.getCacheStats().getMissCount());
+    }
+
+    @Test
+    public void testErasedCredentialsDoNotLeakIntoCache() {
+        ((CustomUserDetails) userDetailsService.loadUserByUsername("testuser")).eraseCredentials();
+
+        assertEquals("hash", userDetailsService.loadUserByUsername("testuser").getPassword());
+    }
+
+    @Test
+    public void testEvictReloadsFromRepository() {
+        userDetailsService.loadUserByUsername("testuser");
+        userDetailsService.evict(1L);
+        userDetailsService.loadUserByUsername("testuser");
+        userDetailsService.evict("testuser");
+        userDetailsService.loadUserByUsername("testuser");
+
+        verify(userRepository, times(3)).findByUsername("testuser");
+        assertEquals(2, userDetailsService.getCacheStats().getInvalidationCount());
+    }
+
+    @Test
+    public void testEvictDuringLoadIsNotUndone() throws Exception {
+        User promoted = new User();
+        promoted.setId(1L);
+        promoted.setUsername("testuser");
+        promoted.setPassword("hash");
+        promoted.setRole(Role.ADMIN);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch roleChanged = new CountDownLatch(1);
+        when(userRepository.findByUsername("testuser")).thenAnswer(invocation -> {
+            loading.countDown();
+            roleChanged.await(5, TimeUnit.SECONDS);
+            return Optional.of(testUser);
+        }).thenReturn(Optional.of(promoted));
+
+        CompletableFuture<UserDetails> inFlight = CompletableFuture.supplyAsync(
+                () -> userDetailsService.loadUserByUsername("testuser"));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        // What UserService.updateRole does once the new role is committed.
+        userDetailsService.evict("testuser");
+        roleChanged.countDown();
+
+        assertEquals("ROLE_USER", authority(inFlight.get(5, TimeUnit.SECONDS)));
+        assertEquals("ROLE_ADMIN", authority(userDetailsService.loadUserByUsername("testuser")));
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    public void testUnknownUserIsNotCached() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+
+    private static String authority(UserDetails userDetails) {
+        return userDetails.getAuthorities().iterator().next().getAuthority();
+    }
+}
@@ -0,0 +1,92 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.dtos.request.AuthRequestDTO;
+import com.adhissoncedeno.backend.model.dtos.response.AuthResponseDTO;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = "passwordHashing.strength=5")
+@ActiveProfiles("test")
+public class PasswordRehashTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    public void testPasswordIsRehashedWithTheConfiguredCostOnLogin() throws Exception {
+        User user = new User();
+        user.setUsername("rehash-user");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        user.setRole(Role.USER);
+        userRepository.save(user);
+
+        AuthRequestDTO request = new AuthRequestDTO();
+        request.setUsername("rehash-user");
+        request.setPassword("secret");
+        AuthResponseDTO response = authService.login(request);
+
+        assertNotNull(response.getToken());
+        String stored = userRepository.findByUsername("rehash-user").orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2a$05$"), stored);
+        // The new hash keeps working.
+        assertNotNull(authService.login(request).getToken());
+    }
+
+    @Test
+    public void testOnlyHashingLeavesTheCallerThread() {
+        User user = new User();
+        user.setUsername("hashing-thread-user");
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setRole(Role.USER);
+        userRepository.save(user);
+        List<String> loadingThreads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            loadingThreads.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(userDetailsService).loadUserByUsername("hashing-thread-user");
+        long matches = meterRegistry.get("bcrypt.matches").timer().count();
+
+        AuthRequestDTO request = new AuthRequestDTO();
+        request.setUsername("hashing-thread-user");
+        request.setPassword("secret");
+        assertNotNull(authService.login(request).getToken());
+
+        assertEquals(List.of(Thread.currentThread().getName()), loadingThreads);
+        assertEquals(matches + 1, meterRegistry.get("bcrypt.matches").timer().count());
+        String hashingThread = passwordHashingExecutor.call(() -> Thread.currentThread().getName());
+        assertTrue(hashingThread.startsWith("password-hashing-"), hashingThread);
+    }
+}
@@ -0,0 +1,168 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostRequestDTO;
+import com.adhissoncedeno.backend.model.dtos.response.DeletePostResultDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.entities.Post;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.DeleteStatus;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PostBulkOperationsTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testPostsAreInsertedInJdbcBatches() {
+        List<User> owners = createOwners("batch-owner", 3);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<PostResponseDTO> created = postService.saveAll(requests(owners, 120));
+
+        assertEquals(120, created.size());
+        assertTrue(created.stream().allMatch(post -> post.getId() != null && post.getCreatedAt() != null));
+        assertEquals(120, statistics.getEntityInsertCount());
+        // One query for the owners, three sequence calls (blocks of 50) and three insert batches.
+        assertTrue(statistics.getPrepareStatementCount() <= 7,
+                "Expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    public void testPostsAreDeletedWithOneStatementPerChunk() {
+        List<User> owners = createOwners("delete-owner", 2);
+        List<PostResponseDTO> created = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            created.addAll(postService.saveAll(requests(owners, 750)));
+        }
+        List<Long> ids = created.stream().map(PostResponseDTO::getId).collect(Collectors.toList());
+        List<Long> ownIds = created.stream()
+                .filter(post -> post.getUserId().equals(owners.get(0).getId()))
+                .map(PostResponseDTO::getId)
+                .collect(Collectors.toList());
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(-1L);
+        CustomUserDetails principal = new CustomUserDetails(owners.get(0).getUsername(), "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), owners.get(0).getId());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<DeletePostResultDTO> results = postService.deleteAllByIds(requested);
+
+        // Two chunks of ids, each one select and one delete.
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1501, results.size());
+        assertEquals(ownIds.size(), results.stream().filter(r -> r.getStatus() == DeleteStatus.DELETED).count());
+        assertEquals(1500 - ownIds.size(),
+                results.stream().filter(r -> r.getStatus() == DeleteStatus.FORBIDDEN).count());
+        assertEquals(DeleteStatus.NOT_FOUND, results.get(1500).getStatus());
+        assertTrue(postRepository.findAllById(ownIds).isEmpty());
+        assertEquals(1500 - ownIds.size(), postRepository.findAllById(ids).size());
+    }
+
+    @Test
+    public void testUpdateTakesOneStatement() {
+        User owner = createOwners("update-owner", 1).get(0);
+        PostResponseDTO created = postService.saveAll(requests(List.of(owner), 1)).get(0);
+        CustomUserDetails principal = new CustomUserDetails(owner.getUsername(), "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), owner.getId());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        PostRequestDTO request = new PostRequestDTO();
+        request.setId(created.getId());
+        request.setTitle("Updated title");
+        request.setContent("Updated content");
+        request.setPublic(false);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PostResponseDTO updated = postService.update(request);
+
+        // The UPDATE returns the previous row; nothing is read before or after it.
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("Updated title", updated.getTitle());
+        assertEquals(owner.getId(), updated.getUserId());
+        Post stored = postRepository.findById(created.getId()).get();
+        assertEquals(stored.getCreatedAt().toInstant(ZoneOffset.UTC), updated.getCreatedAt());
+        assertEquals("Updated content", stored.getContent());
+        assertEquals(1, stored.getVersion());
+        assertEquals(1, updated.getVersion());
+
+        CustomUserDetails stranger = new CustomUserDetails("update-stranger", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), owner.getId() + 1000);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(stranger, null, stranger.getAuthorities()));
+        request.setTitle("Stolen title");
+
+        assertThrows(AccessDeniedException.class, () -> postService.update(request));
+        assertEquals("Updated title", postRepository.findById(created.getId()).get().getTitle());
+    }
+
+    private List<User> createOwners(String prefix, int count) {
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUsername(prefix + i);
+            user.setPassword("password");
+            user.setRole(Role.USER);
+            owners.add(userRepository.save(user));
+        }
+        return owners;
+    }
+
+    private static List<PostRequestDTO> requests(List<User> owners, int count) {
+        List<PostRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PostRequestDTO request = new PostRequestDTO();
+            request.setTitle("Batch post " + i);
+            request.setContent("Content " + i);
+            request.setPublic(i % 2 == 0);
+            request.setUserId(owners.get(i % owners.size()).getId());
+            requests.add(request);
+        }
+        return requests;
+    }
+}
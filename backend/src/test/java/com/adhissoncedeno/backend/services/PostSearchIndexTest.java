@@ -0,0 +1,174 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.entities.Post;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class PostSearchIndexTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @InjectMocks
+    private PostSearchIndex searchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(searchIndex, "enabled", true);
+
+        when(postRepository.findProjected(any(), eq(PostField.ALL), eq(0L), anyInt())).thenReturn(Arrays.asList(
+                dto(1L, 7L, true, "Receta de pan", "Una receta de pan casero"),
+                dto(2L, 7L, true, "Viajes", "Notas del viaje, con una receta de paella"),
+                dto(3L, 8L, false, "Receta secreta", "Solo para mi"),
+                dto(4L, 8L, true, "Canción del verano", "Letra de la canción")));
+    }
+
+    @Test
+    public void testNotAvailableBeforeBuild() {
+        assertTrue(searchIndex.search("receta", null, false, null, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testRanksTitleMatchesFirst() {
+        searchIndex.rebuild();
+
+        assertEquals(Arrays.asList(1L, 2L), ids(search("receta", null, false)));
+        assertTrue(search("inexistente", null, false).isEmpty());
+    }
+
+    @Test
+    public void testIgnoresCaseAndAccents() {
+        searchIndex.rebuild();
+
+        assertEquals(List.of(4L), ids(search("CANCION", null, false)));
+    }
+
+    @Test
+    public void testPrivatePostsOnlyForOwnerAndAdmin() {
+        searchIndex.rebuild();
+
+        assertFalse(ids(search("secreta", null, false)).contains(3L));
+        assertFalse(ids(search("secreta", 7L, false)).contains(3L));
+        assertEquals(List.of(3L), ids(search("secreta", 8L, false)));
+        assertEquals(List.of(3L), ids(search("secreta", null, true)));
+    }
+
+    @Test
+    public void testPagesAfterCursor() {
+        searchIndex.rebuild();
+        List<PostSearchIndex.Hit> first = searchIndex.search("receta", 8L, false, null, null, 2).get();
+
+        PostSearchIndex.Hit last = first.get(first.size() - 1);
+        List<PostSearchIndex.Hit> next = searchIndex.search("receta", 8L, false, last.score(), last.postId(), 2).get();
+
+        assertEquals(2, first.size());
+        assertEquals(1, next.size());
+        assertFalse(ids(first).contains(next.get(0).postId()));
+        assertTrue(last.score() >= next.get(0).score());
+    }
+
+    @Test
+    public void testWritesAreAppliedIncrementally() {
+        searchIndex.rebuild();
+
+        searchIndex.apply(post(5L, 9L, true, "Otra receta", "Tortilla"));
+        searchIndex.apply(post(1L, 7L, true, "Receta de cocina", "Ahora de tortilla"));
+        searchIndex.remove(2L);
+
+        assertEquals(Arrays.asList(5L, 1L), ids(search("tortilla", null, false)));
+        assertEquals(Arrays.asList(5L, 1L), ids(search("receta", null, false)));
+        assertTrue(search("pan", null, false).isEmpty());
+    }
+
+    @Test
+    public void testChangesArrivingOutOfOrderKeepTheNewest() {
+        searchIndex.rebuild();
+
+        // Two updates of post 1 applied in the opposite order of their commits.
+        searchIndex.apply(post(1L, 7L, true, "Tortilla", "Nueva", 2));
+        searchIndex.apply(post(1L, 7L, true, "Receta de pan", "Vieja", 1));
+        // An update that raced with the delete of post 2 and lost.
+        searchIndex.remove(2L);
+        searchIndex.apply(post(2L, 7L, true, "Paella", "Otra vez", 3));
+
+        assertEquals(List.of(1L), ids(search("tortilla", null, false)));
+        assertTrue(search("pan", null, false).isEmpty());
+        assertTrue(search("paella", null, false).isEmpty());
+    }
+
+    @Test
+    public void testCommonTermsOnlyAddToRareMatches() {
+        searchIndex.rebuild();
+        for (long id = 10; id < 30; id++) {
+            searchIndex.apply(post(id, 9L, true, "Diario de viaje " + id, "Cosas de cada dia"));
+        }
+
+        assertEquals(List.of(2L), ids(search("de paella", null, false)));
+        assertEquals(List.of(2L), ids(search("paella viaje", null, false)));
+        assertEquals(10, search("de", null, false).size());
+    }
+
+    @Test
+    public void testRemoveByUser() {
+        searchIndex.rebuild();
+
+        searchIndex.removeByUser(7L);
+        searchIndex.apply(post(1L, 7L, true, "Receta tardia", "Llega despues", 1));
+
+        assertTrue(search("receta", null, true).stream().noneMatch(hit -> hit.postId() < 3));
+    }
+
+    private List<PostSearchIndex.Hit> search(String query, Long viewerId, boolean admin) {
+        return searchIndex.search(query, viewerId, admin, null, null, 10).get();
+    }
+
+    private static List<Long> ids(List<PostSearchIndex.Hit> hits) {
+        return hits.stream().map(PostSearchIndex.Hit::postId).collect(Collectors.toList());
+    }
+
+    private static PostResponseDTO dto(Long id, Long userId, boolean isPublic, String title, String content) {
+        PostResponseDTO dto = new PostResponseDTO();
+        dto.setId(id);
+        dto.setTitle(title);
+        dto.setContent(content);
+        dto.setPublic(isPublic);
+        dto.setUserId(userId);
+        return dto;
+    }
+
+    private static Post post(Long id, Long userId, boolean isPublic, String title, String content) {
+        return post(id, userId, isPublic, title, content, 1);
+    }
+
+    private static Post post(Long id, Long userId, boolean isPublic, String title, String content, long version) {
+        User user = new User();
+        user.setId(userId);
+        Post post = new Post();
+        ReflectionTestUtils.setField(post, "id", id);
+        post.setTitle(title);
+        post.setContent(content);
+        post.setPublic(isPublic);
+        post.setUser(user);
+        post.setVersion(version);
+        return post;
+    }
+}
@@ -3,13 +3,23 @@ package com.adhissoncedeno.backend.services;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import com.adhissoncedeno.backend.mappers.PostMapper;
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.dtos.request.PostOrderDTO;
 import com.adhissoncedeno.backend.model.dtos.request.PostRequestDTO;
+import com.adhissoncedeno.backend.model.dtos.response.DeletePostResultDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PostConnectionDTO;
 import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
 import com.adhissoncedeno.backend.model.entities.Post;
 import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.DeleteStatus;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.model.enums.PostOrderField;
+import com.adhissoncedeno.backend.model.enums.SortDirection;
 import com.adhissoncedeno.backend.repositories.PostRepository;
+import com.adhissoncedeno.backend.utils.CursorUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -18,11 +28,21 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 public class PostServiceTest {
@@ -36,6 +56,18 @@ public class PostServiceTest {
     @Mock
     private PostMapper postMapper;
 
+    @Mock
+    private PublicFeedSnapshot publicFeed;
+
+    @Mock
+    private PublicPostEvents publicPostEvents;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @Mock
     private Authentication authentication;
 
@@ -53,6 +85,14 @@ public class PostServiceTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(postService, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(postService, "maxDeleteSize", 10000);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
 
         // Setup test data
         testUser = new User();
@@ -83,41 +123,141 @@ public class PostServiceTest {
 
     @Test
     public void testFindAll() {
-        List<Post> posts = Collections.singletonList(testPost);
-        when(postRepository.findAll()).thenReturn(posts);
-        when(postMapper.toDto(any(Post.class))).thenReturn(testPostResponseDTO);
+        when(postRepository.findProjected(any(PostFilterDTO.class), eq(PostField.ALL), eq(0L), isNull()))
+                .thenReturn(Collections.singletonList(testPostResponseDTO));
 
-        List<PostResponseDTO> result = postService.findAll();
+        List<PostResponseDTO> result = postService.findAll(PostField.ALL);
 
         assertEquals(1, result.size());
-        verify(postRepository).findAll();
-        verify(postMapper).toDto(testPost);
+        ArgumentCaptor<PostFilterDTO> filter = ArgumentCaptor.forClass(PostFilterDTO.class);
+        verify(postRepository).findProjected(filter.capture(), eq(PostField.ALL), eq(0L), isNull());
+        assertNull(filter.getValue().getIsPublic());
+        assertNull(filter.getValue().getUserId());
+        verifyNoInteractions(publicFeed);
     }
 
     @Test
     public void testFindPublicPosts() {
-        List<Post> posts = Collections.singletonList(testPost);
-        when(postRepository.findByIsPublicTrue()).thenReturn(posts);
-        when(postMapper.toDto(any(Post.class))).thenReturn(testPostResponseDTO);
+        Set<PostField> fields = EnumSet.of(PostField.TITLE);
+        when(publicFeed.find(0L, null, fields))
+                .thenReturn(Optional.of(Collections.singletonList(testPostResponseDTO)));
 
-        List<PostResponseDTO> result = postService.findPublicPosts();
+        List<PostResponseDTO> result = postService.findPublicPosts(fields);
 
         assertEquals(1, result.size());
-        verify(postRepository).findByIsPublicTrue();
-        verify(postMapper).toDto(testPost);
+        verify(postRepository, never()).findProjected(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testFindPublicPostsFallsBackToDatabase() {
+        Set<PostField> fields = EnumSet.of(PostField.TITLE);
+        when(publicFeed.find(0L, null, fields)).thenReturn(Optional.empty());
+        when(postRepository.findProjected(any(PostFilterDTO.class), eq(fields), eq(0L), isNull()))
+                .thenReturn(Collections.singletonList(testPostResponseDTO));
+
+        List<PostResponseDTO> result = postService.findPublicPosts(fields);
+
+        assertEquals(1, result.size());
+        ArgumentCaptor<PostFilterDTO> filter = ArgumentCaptor.forClass(PostFilterDTO.class);
+        verify(postRepository).findProjected(filter.capture(), eq(fields), eq(0L), isNull());
+        assertTrue(filter.getValue().getIsPublic());
+        assertNull(filter.getValue().getUserId());
     }
 
     @Test
     public void testFindByUserId() {
-        List<Post> posts = Collections.singletonList(testPost);
-        when(postRepository.findByUserId(1L)).thenReturn(posts);
-        when(postMapper.toDto(any(Post.class))).thenReturn(testPostResponseDTO);
+        when(postRepository.findProjected(any(PostFilterDTO.class), eq(PostField.ALL), eq(0L), isNull()))
+                .thenReturn(Collections.singletonList(testPostResponseDTO));
 
-        List<PostResponseDTO> result = postService.findByUserId(1L);
+        List<PostResponseDTO> result = postService.findByUserId(1L, PostField.ALL);
 
         assertEquals(1, result.size());
-        verify(postRepository).findByUserId(1L);
-        verify(postMapper).toDto(testPost);
+        ArgumentCaptor<PostFilterDTO> filter = ArgumentCaptor.forClass(PostFilterDTO.class);
+        verify(postRepository).findProjected(filter.capture(), eq(PostField.ALL), eq(0L), isNull());
+        assertEquals(1L, filter.getValue().getUserId());
+        verifyNoInteractions(publicFeed);
+    }
+
+    @Test
+    public void testFindPublicPostsPageHasNextPage() {
+        List<PostResponseDTO> posts = Arrays.asList(testPostResponseDTO, testPostResponseDTO, testPostResponseDTO);
+        when(postRepository.findProjected(any(PostFilterDTO.class), eq(PostField.ALL), eq(0L), eq(3)))
+                .thenReturn(posts);
+
+        PostConnectionDTO result = postService.findPublicPostsPage(2, null, PostField.ALL);
+
+        assertEquals(2, result.getEdges().size());
+        assertEquals(CursorUtil.encode(1L), result.getPageInfo().getEndCursor());
+        assertTrue(result.getPageInfo().isHasNextPage());
+        assertFalse(result.getPageInfo().isHasPreviousPage());
+    }
+
+    @Test
+    public void testFindByUserIdPageAfterCursor() {
+        when(postRepository.findProjected(any(PostFilterDTO.class), eq(PostField.ALL), eq(5L), eq(21)))
+                .thenReturn(Collections.singletonList(testPostResponseDTO));
+
+        PostConnectionDTO result = postService.findByUserIdPage(1L, null, CursorUtil.encode(5L), PostField.ALL);
+
+        assertEquals(1, result.getEdges().size());
+        assertFalse(result.getPageInfo().isHasNextPage());
+        assertTrue(result.getPageInfo().isHasPreviousPage());
+    }
+
+    @Test
+    public void testPageSizeOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> postService.findPublicPostsPage(0, null, PostField.ALL));
+        assertThrows(IllegalArgumentException.class, () -> postService.findPublicPostsPage(101, null, PostField.ALL));
+        assertThrows(IllegalArgumentException.class,
+                () -> postService.findPublicPostsPage(10, "not-a-cursor", PostField.ALL));
+    }
+
+    @Test
+    public void testFindPostsRestrictsOtherUsersToPublicPosts() {
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getName()).thenReturn("2");
+        when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
+        PostOrderDTO order = new PostOrderDTO(PostOrderField.TITLE, SortDirection.ASC);
+        when(postRepository.findFiltered(any(PostFilterDTO.class), eq(order), eq(PostField.ALL), isNull(), isNull(), eq(21)))
+                .thenReturn(Collections.singletonList(testPostResponseDTO));
+        PostFilterDTO filter = new PostFilterDTO();
+        filter.setUserId(1L);
+
+        PostConnectionDTO result = postService.findPosts(filter, order, null, null, PostField.ALL);
+
+        assertEquals(CursorUtil.encode(1L, "Test Title"), result.getEdges().get(0).getCursor());
+        ArgumentCaptor<PostFilterDTO> captor = ArgumentCaptor.forClass(PostFilterDTO.class);
+        verify(postRepository).findFiltered(captor.capture(), eq(order), eq(PostField.ALL), isNull(), isNull(), eq(21));
+        assertEquals(Boolean.TRUE, captor.getValue().getIsPublic());
+        assertEquals(1L, captor.getValue().getUserId());
+    }
+
+    @Test
+    public void testFindPostsIncludesOwnPrivatePosts() {
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getName()).thenReturn("1");
+        when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
+        when(postRepository.findProjected(any(PostFilterDTO.class), eq(PostField.ALL), eq(0L), eq(21)))
+                .thenReturn(Collections.singletonList(testPostResponseDTO));
+        PostFilterDTO filter = new PostFilterDTO();
+        filter.setUserId(1L);
+
+        postService.findPosts(filter, new PostOrderDTO(), null, null, PostField.ALL);
+
+        ArgumentCaptor<PostFilterDTO> captor = ArgumentCaptor.forClass(PostFilterDTO.class);
+        verify(postRepository).findProjected(captor.capture(), eq(PostField.ALL), eq(0L), eq(21));
+        assertNull(captor.getValue().getIsPublic());
+    }
+
+    @Test
+    public void testFindPostsPrivateFilterRequiresOwnerOrAdmin() {
+        PostFilterDTO filter = new PostFilterDTO();
+        filter.setIsPublic(false);
+
+        assertThrows(AccessDeniedException.class,
+                () -> postService.findPosts(filter, new PostOrderDTO(), null, null, PostField.ALL));
+        assertThrows(IllegalArgumentException.class, () -> postService.findPosts(new PostFilterDTO(),
+                new PostOrderDTO(PostOrderField.TITLE, SortDirection.ASC), null, CursorUtil.encode(5L), PostField.ALL));
     }
 
     @Test
@@ -134,18 +274,58 @@ public class PostServiceTest {
         verify(userService).findById(1L);
         verify(postRepository).save(testPost);
         verify(postMapper).toDto(testPost);
+        verify(publicFeed).apply(testPost);
+        verify(postSearchIndex).apply(testPost);
     }
 
     @Test
-    public void testDeleteByIdAsAdmin() {
-        List<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ADMIN"));
+    public void testSaveAllLoadsOwnersOnce() {
+        PostRequestDTO forCurrentUser = new PostRequestDTO();
+        forCurrentUser.setTitle("Other Title");
+        forCurrentUser.setContent("Other Content");
+        Post otherPost = new Post();
         when(authentication.getName()).thenReturn("1");
+        when(userService.findUsersByIds(Set.of(1L))).thenReturn(Map.of(1L, testUser));
+        when(postMapper.toEntity(testPostRequestDTO)).thenReturn(testPost);
+        when(postMapper.toEntity(forCurrentUser)).thenReturn(otherPost);
+        when(postRepository.saveAll(Arrays.asList(testPost, otherPost))).thenReturn(Arrays.asList(testPost, otherPost));
+        when(postMapper.toDto(any(Post.class))).thenReturn(testPostResponseDTO);
+
+        List<PostResponseDTO> result = postService.saveAll(Arrays.asList(testPostRequestDTO, forCurrentUser));
+
+        assertEquals(2, result.size());
+        assertEquals(testUser, otherPost.getUser());
+        verify(userService).findUsersByIds(Set.of(1L));
+        verify(userService, never()).findById(anyLong());
+        verify(postRepository, never()).save(any());
+        verify(publicFeed).applyAll(Arrays.asList(testPost, otherPost));
+        verify(publicPostEvents).createdAll(result);
+    }
+
+    @Test
+    public void testSaveAllUnknownOwner() {
+        when(userService.findUsersByIds(Set.of(1L))).thenReturn(Collections.emptyMap());
+        when(postMapper.toEntity(testPostRequestDTO)).thenReturn(testPost);
+
+        assertThrows(RuntimeException.class, () -> postService.saveAll(List.of(testPostRequestDTO)));
+        verify(postRepository, never()).saveAll(any());
+        ReflectionTestUtils.setField(postService, "maxBatchSize", 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> postService.saveAll(Arrays.asList(testPostRequestDTO, testPostRequestDTO)));
+    }
+
+    @Test
+    public void testDeleteByIdAsAdmin() {
+        List<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        when(authentication.getName()).thenReturn("9");
         doReturn(authorities).when(authentication).getAuthorities();
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        when(postRepository.deleteAllByIdIn(List.of(1L))).thenReturn(1);
 
         postService.deleteById(1L);
 
-        verify(postRepository).deleteById(1L);
+        verify(postRepository).deleteAllByIdIn(List.of(1L));
+        verify(postRepository, never()).findById(anyLong());
+        verify(postRepository, never()).existsById(anyLong());
     }
 
     @Test
@@ -153,11 +333,27 @@ public class PostServiceTest {
         // Setup owner authentication
         when(authentication.getName()).thenReturn("1");
         when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        when(postRepository.deleteAllByIdInAndUserId(List.of(1L), 1L)).thenReturn(1);
 
         postService.deleteById(1L);
 
-        verify(postRepository).deleteById(1L);
+        verify(postRepository).deleteAllByIdInAndUserId(List.of(1L), 1L);
+        verify(publicFeed).remove(1L);
+        verify(postSearchIndex).remove(1L);
+        verify(publicPostEvents).deleted(1L, false);
+    }
+
+    @Test
+    public void testDeleteByIdReadsPreviousVisibilityForSubscribers() {
+        when(authentication.getName()).thenReturn("1");
+        when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
+        when(publicPostEvents.hasSubscribers()).thenReturn(true);
+        when(postRepository.findIsPublicById(1L)).thenReturn(Optional.of(true));
+        when(postRepository.deleteAllByIdInAndUserId(List.of(1L), 1L)).thenReturn(1);
+
+        postService.deleteById(1L);
+
+        verify(publicPostEvents).deleted(1L, true);
     }
 
     @Test
@@ -165,27 +361,84 @@ public class PostServiceTest {
         // Setup non-owner authentication
         when(authentication.getName()).thenReturn("2");
         when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        when(postRepository.deleteAllByIdInAndUserId(List.of(1L), 2L)).thenReturn(0);
+        when(postRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(AccessDeniedException.class, () -> postService.deleteById(1L));
-        verify(postRepository, never()).deleteById(anyLong());
+        verify(publicFeed, never()).remove(anyLong());
+        verify(publicPostEvents, never()).deleted(anyLong(), anyBoolean());
     }
 
     @Test
-    public void testUpdateAsAdmin() {
-        List<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ADMIN"));
+    public void testDeleteAllByIdsKeepsOwnershipInTheDelete() {
+        when(authentication.getName()).thenReturn("1");
+        when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
+        when(postRepository.findOwnersByIdIn(Arrays.asList(1L, 2L, 3L)))
+                .thenReturn(Arrays.asList(owner(1L, 1L), owner(2L, 2L)));
+        when(postRepository.deleteAllByIdInAndUserId(List.of(1L), 1L)).thenReturn(1);
+
+        List<DeletePostResultDTO> results = postService.deleteAllByIds(Arrays.asList(1L, 2L, 3L, 1L));
+
+        assertEquals(3, results.size());
+        assertEquals(DeleteStatus.DELETED, results.get(0).getStatus());
+        assertEquals(DeleteStatus.FORBIDDEN, results.get(1).getStatus());
+        assertEquals(DeleteStatus.NOT_FOUND, results.get(2).getStatus());
+        verify(postRepository).deleteAllByIdInAndUserId(List.of(1L), 1L);
+        verify(postRepository, never()).deleteAllByIdIn(any());
+        verify(publicFeed).removeAll(List.of(1L));
+    }
+
+    @Test
+    public void testDeleteAllByIdsAsAdmin() {
+        List<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        when(authentication.getName()).thenReturn("9");
         doReturn(authorities).when(authentication).getAuthorities();
+        when(postRepository.findOwnersByIdIn(Arrays.asList(1L, 2L)))
+                .thenReturn(Arrays.asList(owner(1L, 1L, true), owner(2L, 2L)));
+        when(postRepository.deleteAllByIdIn(Arrays.asList(1L, 2L))).thenReturn(2);
+
+        List<DeletePostResultDTO> results = postService.deleteAllByIds(Arrays.asList(1L, 2L));
+
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == DeleteStatus.DELETED));
+        verify(postRepository).deleteAllByIdIn(Arrays.asList(1L, 2L));
+        verify(postRepository).findOwnersByIdIn(Arrays.asList(1L, 2L));
+        verify(publicPostEvents).deletedAll(List.of(1L));
+    }
+
+    @Test
+    public void testDeleteAllByIdsRechecksWhenTheCountDiffers() {
         when(authentication.getName()).thenReturn("1");
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
-        when(postRepository.save(any(Post.class))).thenReturn(testPost);
+        when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
+        when(postRepository.findOwnersByIdIn(Arrays.asList(1L, 2L)))
+                .thenReturn(Arrays.asList(owner(1L, 1L, true), owner(2L, 1L, true)))
+                .thenReturn(List.of(owner(2L, 3L, true)));
+        when(postRepository.deleteAllByIdInAndUserId(Arrays.asList(1L, 2L), 1L)).thenReturn(1);
+
+        List<DeletePostResultDTO> results = postService.deleteAllByIds(Arrays.asList(1L, 2L));
+
+        assertEquals(DeleteStatus.DELETED, results.get(0).getStatus());
+        assertEquals(DeleteStatus.FORBIDDEN, results.get(1).getStatus());
+        verify(publicFeed).removeAll(List.of(1L));
+        verify(postSearchIndex).removeAll(List.of(1L));
+        verify(publicPostEvents).deletedAll(List.of(1L));
+    }
+
+    @Test
+    public void testUpdateAsAdmin() {
+        List<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        doReturn(authorities).when(authentication).getAuthorities();
+        when(authentication.getName()).thenReturn("9");
+        when(postRepository.updateReturningPrevious(1L, "Test Title", "Test Content", true, 9L, true))
+                .thenReturn(Optional.of(previous(1L, true)));
+        when(postMapper.toEntity(testPostRequestDTO)).thenReturn(testPost);
         when(postMapper.toDto(testPost)).thenReturn(testPostResponseDTO);
 
         PostResponseDTO result = postService.update(testPostRequestDTO);
 
         assertNotNull(result);
-        verify(postRepository).save(testPost);
-        assertEquals("Test Title", testPost.getTitle());
-        assertEquals("Test Content", testPost.getContent());
+        verify(postRepository, never()).existsById(anyLong());
+        verify(postRepository, never()).save(any(Post.class));
+        verify(postRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -193,14 +446,22 @@ public class PostServiceTest {
         // Setup owner authentication
         when(authentication.getName()).thenReturn("1");
         when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
-        when(postRepository.save(any(Post.class))).thenReturn(testPost);
+        when(postRepository.updateReturningPrevious(1L, "Test Title", "Test Content", true, 1L, false))
+                .thenReturn(Optional.of(previous(1L, false)));
+        when(postMapper.toEntity(testPostRequestDTO)).thenReturn(testPost);
         when(postMapper.toDto(testPost)).thenReturn(testPostResponseDTO);
 
         PostResponseDTO result = postService.update(testPostRequestDTO);
 
         assertNotNull(result);
-        verify(postRepository).save(testPost);
+        assertEquals(1L, testPost.getId());
+        assertEquals(testUser.getId(), testPost.getUser().getId());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), testPost.getCreatedAt());
+        assertEquals(4, testPost.getVersion());
+        verify(postRepository, never()).save(any(Post.class));
+        verify(publicFeed).apply(testPost);
+        verify(postSearchIndex).apply(testPost);
+        verify(publicPostEvents).updated(testPostResponseDTO, false);
     }
 
     @Test
@@ -208,19 +469,96 @@ public class PostServiceTest {
         // Setup non-owner authentication
         when(authentication.getName()).thenReturn("2");
         when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
-        when(postRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        when(postRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(AccessDeniedException.class, () -> postService.update(testPostRequestDTO));
-        verify(postRepository, never()).save(any(Post.class));
+        verify(postRepository).updateReturningPrevious(1L, "Test Title", "Test Content", true, 2L, false);
+        verify(publicFeed, never()).apply(any(Post.class));
     }
 
     @Test
     public void testPostNotFound() {
-        when(postRepository.findById(99L)).thenReturn(Optional.empty());
+        when(authentication.getName()).thenReturn("1");
+        when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
+        when(postRepository.existsById(99L)).thenReturn(false);
 
         testPostRequestDTO.setId(99L);
-        assertThrows(RuntimeException.class, () -> postService.update(testPostRequestDTO));
+        RuntimeException updateError = assertThrows(RuntimeException.class, () -> postService.update(testPostRequestDTO));
+        RuntimeException deleteError = assertThrows(RuntimeException.class, () -> postService.deleteById(99L));
+
+        assertEquals("Post not found", updateError.getMessage());
+        assertEquals("Post not found", deleteError.getMessage());
+    }
+
+    @Test
+    public void testSearchPostsLoadsPageInRankOrder() {
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getName()).thenReturn("2");
+        when(authentication.getAuthorities()).thenReturn(Collections.emptyList());
+        when(postSearchIndex.search("title", 2L, false, null, null, 3)).thenReturn(Optional.of(Arrays.asList(
+                new PostSearchIndex.Hit(3L, 2.5f), new PostSearchIndex.Hit(1L, 1.5f), new PostSearchIndex.Hit(4L, 1f))));
+        Post privatePost = new Post();
+        ReflectionTestUtils.setField(privatePost, "id", 3L);
+        privatePost.setUser(testUser);
+        privatePost.setPublic(false);
+        ReflectionTestUtils.setField(testPost, "id", 1L);
+        when(postRepository.findAllById(Arrays.asList(3L, 1L))).thenReturn(Arrays.asList(testPost, privatePost));
+        when(postMapper.toDto(testPost)).thenReturn(testPostResponseDTO);
+
+        PostConnectionDTO result = postService.searchPosts("title", 2, null);
+
+        // Post 3 turned private after it was indexed, so it is left out but the cursors still move past it.
+        assertEquals(1, result.getEdges().size());
+        assertEquals(1L, result.getEdges().get(0).getNode().getId());
+        assertTrue(result.getPageInfo().isHasNextPage());
+        String endCursor = result.getPageInfo().getEndCursor();
+        assertEquals(1L, CursorUtil.decode(endCursor));
+        assertEquals("1.5", CursorUtil.decodeSortValue(endCursor));
+    }
+
+    @Test
+    public void testSearchPostsAfterCursor() {
+        when(postSearchIndex.search("title", null, false, 1.5f, 1L, 21)).thenReturn(Optional.of(List.of()));
+
+        PostConnectionDTO result = postService.searchPosts("title", null, CursorUtil.encode(1L, "1.5"));
+
+        assertTrue(result.getEdges().isEmpty());
+        assertTrue(result.getPageInfo().isHasPreviousPage());
+        assertThrows(IllegalArgumentException.class, () -> postService.searchPosts("title", null, CursorUtil.encode(1L)));
+        assertThrows(IllegalArgumentException.class, () -> postService.searchPosts(" ", null, null));
+    }
+
+    @Test
+    public void testSearchPostsBeforeIndexIsBuilt() {
+        when(postSearchIndex.search(any(), any(), anyBoolean(), any(), any(), anyInt())).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> postService.searchPosts("title", null, null));
+    }
+
+    private static PostRepository.PreviousPost previous(Long userId, boolean isPublic) {
+        return new PostRepository.PreviousPost(userId, LocalDateTime.of(2024, 1, 1, 0, 0), isPublic, 3);
+    }
+
+    private static PostRepository.PostOwner owner(Long id, Long userId) {
+        return owner(id, userId, false);
+    }
 
-        assertThrows(RuntimeException.class, () -> postService.deleteById(99L));
+    private static PostRepository.PostOwner owner(Long id, Long userId, boolean isPublic) {
+        return new PostRepository.PostOwner() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public boolean getIsPublic() {
+                return isPublic;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.entities.Post;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class PublicFeedSnapshotTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @InjectMocks
+    private PublicFeedSnapshot publicFeed;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(publicFeed, "enabled", true);
+        ReflectionTestUtils.setField(publicFeed, "maxPosts", 10);
+        ReflectionTestUtils.setField(publicFeed, "maxBytes", 1_000_000L);
+
+        when(postRepository.findProjected(any(), eq(PostField.ALL), eq(0L), anyInt()))
+                .thenReturn(Arrays.asList(dto(1L), dto(3L), dto(5L)));
+    }
+
+    @Test
+    public void testNotAvailableBeforeLoad() {
+        assertTrue(publicFeed.find(0L, null, PostField.ALL).isEmpty());
+    }
+
+    @Test
+    public void testPagesAfterCursor() {
+        publicFeed.reconcile();
+
+        assertEquals(Arrays.asList(3L, 5L), ids(publicFeed.find(1L, null, PostField.ALL).get()));
+        assertEquals(List.of(3L), ids(publicFeed.find(2L, 1, PostField.ALL).get()));
+        assertTrue(publicFeed.find(5L, 10, PostField.ALL).get().isEmpty());
+    }
+
+    @Test
+    public void testWritesAreAppliedIncrementally() {
+        publicFeed.reconcile();
+        long version = publicFeed.getVersion();
+
+        publicFeed.apply(post(4L, true));
+        publicFeed.apply(post(3L, false));
+        publicFeed.remove(1L);
+
+        assertEquals(Arrays.asList(4L, 5L), ids(publicFeed.find(0L, null, PostField.ALL).get()));
+        assertEquals(version + 3, publicFeed.getVersion());
+    }
+
+    @Test
+    public void testBatchIsAppliedAtOnce() {
+        publicFeed.reconcile();
+        long version = publicFeed.getVersion();
+
+        publicFeed.applyAll(Arrays.asList(post(6L, true), post(2L, true), post(3L, false), post(6L, false)));
+
+        assertEquals(Arrays.asList(1L, 2L, 5L), ids(publicFeed.find(0L, null, PostField.ALL).get()));
+        assertEquals(version + 1, publicFeed.getVersion());
+    }
+
+    @Test
+    public void testChangesArrivingOutOfOrderKeepTheNewest() {
+        publicFeed.reconcile();
+
+        // Two updates of post 3 applied in the opposite order of their commits.
+        publicFeed.apply(post(3L, true, 2, "Newer"));
+        publicFeed.apply(post(3L, true, 1, "Older"));
+        // Post 5 made private, then an older public version of it.
+        publicFeed.apply(post(5L, false, 2, "Private"));
+        publicFeed.apply(post(5L, true, 1, "Public"));
+        // An update that raced with the delete of post 1 and lost.
+        publicFeed.remove(1L);
+        publicFeed.apply(post(1L, true, 4, "Updated"));
+
+        List<PostResponseDTO> posts = publicFeed.find(0L, null, PostField.ALL).get();
+        assertEquals(List.of(3L), ids(posts));
+        assertEquals("Newer", posts.get(0).getTitle());
+    }
+
+    @Test
+    public void testPostsOfADeletedUserAreNotBroughtBack() {
+        publicFeed.reconcile();
+
+        publicFeed.removeByUser(7L);
+        publicFeed.apply(post(1L, true, 1, "Late update"));
+
+        assertTrue(publicFeed.find(0L, null, PostField.ALL).get().isEmpty());
+    }
+
+    @Test
+    public void testRemoveByUser() {
+        publicFeed.reconcile();
+
+        publicFeed.removeByUser(7L);
+
+        assertTrue(publicFeed.find(0L, null, PostField.ALL).get().isEmpty());
+    }
+
+    @Test
+    public void testReconcileCountsDrift() {
+        publicFeed.reconcile();
+        publicFeed.apply(post(9L, true));
+
+        publicFeed.reconcile();
+
+        assertEquals(1, publicFeed.getStats().getLastReconcileDrift());
+        assertEquals(3, publicFeed.getStats().getSize());
+    }
+
+    @Test
+    public void testDroppedWhenOverLimit() {
+        ReflectionTestUtils.setField(publicFeed, "maxPosts", 3);
+        publicFeed.reconcile();
+
+        publicFeed.apply(post(4L, true));
+
+        assertTrue(publicFeed.find(0L, null, PostField.ALL).isEmpty());
+        assertFalse(publicFeed.getStats().isAvailable());
+    }
+
+    private static List<Long> ids(List<PostResponseDTO> posts) {
+        return posts.stream().map(PostResponseDTO::getId).collect(Collectors.toList());
+    }
+
+    private static PostResponseDTO dto(Long id) {
+        PostResponseDTO dto = new PostResponseDTO();
+        dto.setId(id);
+        dto.setTitle("Post " + id);
+        dto.setContent("Content " + id);
+        dto.setPublic(true);
+        dto.setUserId(7L);
+        return dto;
+    }
+
+    private static Post post(Long id, boolean isPublic) {
+        return post(id, isPublic, 1, "Post " + id);
+    }
+
+    private static Post post(Long id, boolean isPublic, long version, String title) {
+        User user = new User();
+        user.setId(7L);
+        Post post = new Post();
+        ReflectionTestUtils.setField(post, "id", id);
+        post.setTitle(title);
+        post.setContent("Content " + id);
+        post.setPublic(isPublic);
+        post.setUser(user);
+        post.setVersion(version);
+        return post;
+    }
+}
@@ -0,0 +1,129 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.dtos.response.PublicPostChangeDTO;
+import com.adhissoncedeno.backend.model.enums.PostChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PublicPostEventsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PublicPostEvents publicPostEvents;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publicPostEvents = new PublicPostEvents();
+        ReflectionTestUtils.setField(publicPostEvents, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(publicPostEvents, "bufferSize", 4);
+        publicPostEvents.init();
+    }
+
+    @Test
+    public void testOnlyPublicChangesAreSent() {
+        Flux<PublicPostChangeDTO> changes = publicPostEvents.subscribe().take(4).cache();
+        changes.subscribe();
+        awaitSubscribers(1);
+
+        publicPostEvents.created(post(1L, true));
+        publicPostEvents.created(post(2L, false));
+        publicPostEvents.updated(post(2L, true), false);
+        publicPostEvents.updated(post(1L, true), true);
+        publicPostEvents.updated(post(3L, false), false);
+        publicPostEvents.deleted(4L, false);
+        publicPostEvents.updated(post(1L, false), true);
+
+        List<PublicPostChangeDTO> received = changes.collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(PostChangeType.CREATED, PostChangeType.CREATED, PostChangeType.UPDATED, PostChangeType.DELETED),
+                received.stream().map(PublicPostChangeDTO::getType).toList());
+        assertEquals(List.of(1L, 2L, 1L, 1L), received.stream().map(PublicPostChangeDTO::getPostId).toList());
+        assertNull(received.get(3).getPost());
+    }
+
+    @Test
+    public void testBatchChangesAreSentPerPublicPost() {
+        Flux<PublicPostChangeDTO> changes = publicPostEvents.subscribe().take(4).cache();
+        changes.subscribe();
+        awaitSubscribers(1);
+
+        publicPostEvents.createdAll(List.of(post(1L, true), post(2L, false), post(3L, true)));
+        publicPostEvents.deletedAll(List.of(1L, 3L));
+
+        List<PublicPostChangeDTO> received = changes.collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(PostChangeType.CREATED, PostChangeType.CREATED, PostChangeType.DELETED, PostChangeType.DELETED),
+                received.stream().map(PublicPostChangeDTO::getType).toList());
+        assertEquals(List.of(1L, 3L, 1L, 3L), received.stream().map(PublicPostChangeDTO::getPostId).toList());
+    }
+
+    @Test
+    public void testSlowSubscriberIsDropped() throws Exception {
+        List<Long> received = new CopyOnWriteArrayList<>();
+        CompletableFuture<Throwable> error = new CompletableFuture<>();
+        BaseSubscriber<PublicPostChangeDTO> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // Requests nothing until the changes are published, like a client that fell behind.
+            }
+
+            @Override
+            protected void hookOnNext(PublicPostChangeDTO change) {
+                received.add(change.getPostId());
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                error.complete(throwable);
+            }
+        };
+        publicPostEvents.subscribe().subscribe(subscriber);
+        awaitSubscribers(1);
+
+        for (long id = 1; id <= 10; id++) {
+            publicPostEvents.created(post(id, true));
+        }
+        subscriber.requestUnbounded();
+
+        assertTrue(Exceptions.isOverflow(error.get(5, TimeUnit.SECONDS)));
+        // One change waiting for delivery plus a full buffer of four; later ones never reach it.
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), received);
+        assertEquals(1, meterRegistry.get("graphql.subscriptions.dropped").counter().count());
+        awaitSubscribers(0);
+    }
+
+    private void awaitSubscribers(int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("graphql.subscriptions.active").gauge().value() != expected) {
+            assertTrue(System.nanoTime() < deadline, "subscribers did not reach " + expected);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static PostResponseDTO post(Long id, boolean isPublic) {
+        PostResponseDTO post = new PostResponseDTO();
+        post.setId(id);
+        post.setTitle("Post " + id);
+        post.setContent("Content " + id);
+        post.setPublic(isPublic);
+        return post;
+    }
+}
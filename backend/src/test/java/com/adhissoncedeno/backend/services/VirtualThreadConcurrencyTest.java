@@ -0,0 +1,106 @@
+package com.adhissoncedeno.backend.services;
+
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A small connection pool so most tasks wait for a connection, which is where pinning would show.
+// The throughput against platform threads is measured in VirtualThreadThroughputBenchmark.
+@SpringBootTest(properties = "spring.datasource.hikari.maximum-pool-size=4")
+@ActiveProfiles("test")
+public class VirtualThreadConcurrencyTest {
+
+    private static final int TASKS = 400;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testJdbcPathsDoNotPinCarrierThreads() throws Exception {
+        createUser("virtual-user");
+        Path dump = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                assertEquals(TASKS, run(executor, TASKS));
+            }
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> pinned = RecordingFile.readAllEvents(dump);
+        Files.delete(dump);
+        assertTrue(pinned.isEmpty(), () -> "Carrier threads were pinned:\n" + pinned.stream()
+                .map(event -> String.valueOf(event.getStackTrace()))
+                .collect(Collectors.joining("\n")));
+    }
+
+    private int run(ExecutorService executor, int tasks) throws Exception {
+        PostFilterDTO filter = new PostFilterDTO();
+        filter.setIsPublic(true);
+        AtomicInteger completed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            boolean login = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                if (login) {
+                    // Evicting forces the user query instead of a cache hit.
+                    userDetailsService.evict("virtual-user");
+                    userDetailsService.loadUserByUsername("virtual-user");
+                } else {
+                    postRepository.findProjected(filter, PostField.ALL, 0L, 20);
+                }
+                completed.incrementAndGet();
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return completed.get();
+    }
+
+    private void createUser(String username) {
+        if (userRepository.findByUsername(username).isPresent()) {
+            return;
+        }
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        user.setRole(Role.USER);
+        userRepository.save(user);
+    }
+}
@@ -0,0 +1,117 @@
+package com.adhissoncedeno.backend.utils;
+
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.security.TokenVersionRegistry;
+import com.adhissoncedeno.backend.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class JwtTokenUtilTest {
+
+    private JwtTokenUtil jwtTokenUtil;
+    private TokenVersionRegistry tokenVersionRegistry;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    public void setUp() {
+        jwtTokenUtil = new JwtTokenUtil();
+        // Stands in for users.token_version of user 7.
+        AtomicInteger storedVersion = new AtomicInteger();
+        tokenVersionRegistry = mock(TokenVersionRegistry.class);
+        when(tokenVersionRegistry.currentVersion(7L)).thenAnswer(invocation -> storedVersion.get());
+        when(tokenVersionRegistry.isCurrent(eq(7L), anyInt()))
+                .thenAnswer(invocation -> invocation.<Integer>getArgument(1) == storedVersion.get());
+        doAnswer(invocation -> storedVersion.incrementAndGet()).when(tokenVersionRegistry).revoke(7L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "tokenVersionRegistry", tokenVersionRegistry);
+        ReflectionTestUtils.setField(jwtTokenUtil, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", "testSecretKeyWhichShouldBeAtLeast32CharactersLong");
+        ReflectionTestUtils.setField(jwtTokenUtil, "expiration", 60000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "refreshExpiration", 120000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "verifiedCacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "verifiedCacheMaximumTtl", 60000L);
+        jwtTokenUtil.init();
+
+        userDetails = new CustomUserDetails(
+            "testuser",
+            "password",
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")),
+            7L
+        );
+    }
+
+    @Test
+    public void testVerifyReadsClaims() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        VerifiedToken verified = jwtTokenUtil.verify(token);
+
+        assertEquals("testuser", verified.getUsername());
+        assertEquals(7L, verified.getUserId());
+        assertEquals(Collections.singletonList("ROLE_USER"), verified.getRoles());
+        assertTrue(jwtTokenUtil.validateToken(verified, userDetails));
+    }
+
+    @Test
+    public void testVerifyReusesVerifiedToken() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        assertSame(jwtTokenUtil.verify(token), jwtTokenUtil.verify(token));
+    }
+
+    @Test
+    public void testVerifyRejectsTamperedToken() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+        jwtTokenUtil.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtTokenUtil.verify(tampered));
+    }
+
+    @Test
+    public void testValidateTokenForOtherUser() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+        UserDetails otherUser = new CustomUserDetails("other", "password", Collections.emptyList(), 8L);
+
+        assertFalse(jwtTokenUtil.validateToken(token, otherUser));
+    }
+
+    @Test
+    public void testToUserDetailsFromClaims() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        CustomUserDetails fromClaims = jwtTokenUtil.toUserDetails(jwtTokenUtil.verify(token));
+
+        assertEquals(7L, fromClaims.getId());
+        assertEquals("testuser", fromClaims.getUsername());
+        assertEquals(userDetails.getAuthorities(), fromClaims.getAuthorities());
+        assertNull(jwtTokenUtil.toUserDetails(jwtTokenUtil.verify(jwtTokenUtil.generateRefreshToken(userDetails))));
+    }
+
+    @Test
+    public void testRevokedTokenIsRejected() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+        VerifiedToken verified = jwtTokenUtil.verify(token);
+        assertTrue(jwtTokenUtil.validateToken(verified, jwtTokenUtil.toUserDetails(verified)));
+
+        tokenVersionRegistry.revoke(7L);
+
+        assertFalse(jwtTokenUtil.validateToken(verified, jwtTokenUtil.toUserDetails(verified)));
+        assertFalse(jwtTokenUtil.validateToken(token, userDetails));
+        assertTrue(jwtTokenUtil.validateToken(jwtTokenUtil.generateToken(userDetails), userDetails));
+    }
+}
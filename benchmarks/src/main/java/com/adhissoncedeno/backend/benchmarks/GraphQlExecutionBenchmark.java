@@ -0,0 +1,123 @@
+package com.adhissoncedeno.backend.benchmarks;
+
+import com.adhissoncedeno.backend.BackendApplication;
+import com.adhissoncedeno.backend.model.entities.Post;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.services.PublicFeedSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes GraphQL documents through the application's ExecutionGraphQlService (no HTTP) with
+ * the whole context running against an in-memory H2 database. {@code publicFeed} switches the
+ * in-memory public post snapshot on and off, so findPublicPosts is measured from memory and
+ * from the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphQlExecutionBenchmark {
+
+    private static final String FIND_PUBLIC_POSTS = """
+            query { findPublicPosts { id title content } }
+            """;
+
+    private static final String FIND_POST_BY_ID = """
+            query findPostById($id: ID!) { findPostById(id: $id) { id title content isPublic } }
+            """;
+
+    @Param({"1000"})
+    private int posts;
+
+    @Param({"true", "false"})
+    private boolean publicFeed;
+
+    private ConfigurableApplicationContext context;
+
+    private ExecutionGraphQlService graphQlService;
+
+    private Long postId;
+
+    @Setup
+    public void setUp() {
+        // Command line arguments, so they take precedence over application.properties.
+        context = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--management.server.port=0",
+                "--logging.level.root=WARN",
+                "--publicFeed.enabled=" + publicFeed);
+        graphQlService = context.getBean(ExecutionGraphQlService.class);
+
+        User owner = context.getBean(UserRepository.class).findAll().get(0);
+        List<Post> seeded = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            Post post = new Post();
+            post.setTitle("Benchmark post " + i);
+            post.setContent("Content of benchmark post " + i);
+            post.setPublic(true);
+            post.setUser(owner);
+            seeded.add(post);
+        }
+        postId = context.getBean(PostRepository.class).saveAll(seeded).get(posts / 2).getId();
+        context.getBean(PublicFeedSnapshot.class).reconcile();
+
+        execute(FIND_PUBLIC_POSTS, null);
+        execute(FIND_POST_BY_ID, postId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findPublicPosts() {
+        return execute(FIND_PUBLIC_POSTS, null);
+    }
+
+    @Benchmark
+    public Object findPostById() {
+        return execute(FIND_POST_BY_ID, postId);
+    }
+
+    private Object execute(String document, Long id) {
+        DefaultExecutionGraphQlRequest request = new DefaultExecutionGraphQlRequest(document, null,
+                id != null ? Map.of("id", id) : null, null, UUID.randomUUID().toString(), null);
+        ExecutionGraphQlResponse response = graphQlService.execute(request).block();
+        if (response == null || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("GraphQL errors: " + (response != null ? response.getErrors() : null));
+        }
+        return response.getData();
+    }
+}
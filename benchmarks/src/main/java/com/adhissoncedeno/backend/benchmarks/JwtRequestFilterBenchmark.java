@@ -0,0 +1,179 @@
+package com.adhissoncedeno.backend.benchmarks;
+
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.security.JwtRequestFilter;
+import com.adhissoncedeno.backend.utils.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through the JWT filter. {@code baseline} is the filter as it was
+ * before the verified-token cache: the key and parser built for each of the three parses of a
+ * request, and the user loaded by username, here from an in-memory H2 table. The other two run
+ * the current filter with stateless authentication (claims only, no user lookup), the mode the
+ * application runs in: {@code uncached} checks the signature on every request and
+ * {@code cached} only on the first one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtRequestFilterBenchmark {
+
+    @Param({"baseline", "uncached", "cached"})
+    private String filterImplementation;
+
+    private OncePerRequestFilter filter;
+
+    private String authorization;
+
+    private Connection connection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        JwtTokenUtil jwtTokenUtil = JwtTokenUtilBenchmark.jwtTokenUtil(filterImplementation.equals("cached") ? 10_000L : 0L);
+        CustomUserDetails userDetails = new CustomUserDetails("benchmark", "",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 1L);
+        authorization = "Bearer " + jwtTokenUtil.generateToken(userDetails);
+
+        if (filterImplementation.equals("baseline")) {
+            connection = DriverManager.getConnection("jdbc:h2:mem:jwt-baseline;MODE=MSSQLServer;DB_CLOSE_DELAY=-1", "sa", "");
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS users (id BIGINT PRIMARY KEY, "
+                        + "username VARCHAR(255) UNIQUE, password VARCHAR(255), role VARCHAR(20))");
+                statement.execute("MERGE INTO users KEY (id) VALUES (1, 'benchmark', '', 'USER')");
+            }
+            filter = new BaselineJwtRequestFilter(
+                    (String) ReflectionTestUtils.getField(jwtTokenUtil, "secret"), connection);
+            return;
+        }
+        JwtRequestFilter current = new JwtRequestFilter();
+        ReflectionTestUtils.setField(current, "jwtTokenUtil", jwtTokenUtil);
+        ReflectionTestUtils.setField(current, "statelessAuthentication", true);
+        filter = current;
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/graphql");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // JwtRequestFilter and JwtTokenUtil before the verified-token cache, reduced to what a valid
+    // token goes through: extractUsername in the filter, then extractUsername and
+    // extractExpiration again in validateToken, each building its own key and parser.
+    private static class BaselineJwtRequestFilter extends OncePerRequestFilter {
+
+        private final String secret;
+
+        private final Connection connection;
+
+        BaselineJwtRequestFilter(String secret, Connection connection) {
+            this.secret = secret;
+            this.connection = connection;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            String jwt = request.getHeader("Authorization").substring(7);
+            String username = extractAllClaims(jwt).getSubject();
+
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = loadUserByUsername(username);
+                boolean valid = extractAllClaims(jwt).getSubject().equals(userDetails.getUsername())
+                        && !extractAllClaims(jwt).getExpiration().before(new Date());
+                if (valid) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            }
+            chain.doFilter(request, response);
+        }
+
+        private Claims extractAllClaims(String token) {
+            SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
+            return Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+        }
+
+        // CustomUserDetailsService.loadUserByUsername without the user cache: one query by
+        // username per request.
+        private UserDetails loadUserByUsername(String username) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, username, password, role FROM users WHERE username = ?")) {
+                statement.setString(1, username);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new UsernameNotFoundException("User not found: " + username);
+                    }
+                    return new CustomUserDetails(resultSet.getString("username"), resultSet.getString("password"),
+                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + resultSet.getString("role"))),
+                            resultSet.getLong("id"));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
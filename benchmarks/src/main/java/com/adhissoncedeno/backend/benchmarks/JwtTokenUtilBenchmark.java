@@ -0,0 +1,89 @@
+package com.adhissoncedeno.backend.benchmarks;
+
+import com.adhissoncedeno.backend.security.CustomUserDetails;
+import com.adhissoncedeno.backend.security.TokenVersionRegistry;
+import com.adhissoncedeno.backend.utils.JwtTokenUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenUtilBenchmark {
+
+    private JwtTokenUtil jwtTokenUtil;
+
+    private CustomUserDetails userDetails;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenUtil = jwtTokenUtil(10_000L);
+        userDetails = new CustomUserDetails("benchmark", "",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 1L);
+        token = jwtTokenUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenUtil.generateToken(userDetails);
+    }
+
+    // The token is verified once and then served from the verified-token cache, as for every
+    // request after the first one with the same bearer token.
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtTokenUtil.validateToken(token, userDetails);
+    }
+
+    static JwtTokenUtil jwtTokenUtil(long verifiedCacheSize) {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "tokenVersionRegistry", tokenVersionRegistry());
+        ReflectionTestUtils.setField(jwtTokenUtil, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", "benchmarkSecretKeyWhichShouldBeAtLeast32CharactersLong");
+        ReflectionTestUtils.setField(jwtTokenUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "refreshExpiration", 7_200_000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "verifiedCacheMaximumSize", verifiedCacheSize);
+        ReflectionTestUtils.setField(jwtTokenUtil, "verifiedCacheMaximumTtl", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(jwtTokenUtil, "init");
+        return jwtTokenUtil;
+    }
+
+    // Every user is at version 0; the registry caches it after the first lookup, so the
+    // template never reaches a database.
+    private static TokenVersionRegistry tokenVersionRegistry() {
+        TokenVersionRegistry tokenVersionRegistry = new TokenVersionRegistry();
+        ReflectionTestUtils.setField(tokenVersionRegistry, "transactionTemplate", new TransactionTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T execute(TransactionCallback<T> action) {
+                return (T) Optional.of(0);
+            }
+        });
+        ReflectionTestUtils.setField(tokenVersionRegistry, "maximumSize", 10_000L);
+        ReflectionTestUtils.setField(tokenVersionRegistry, "expireAfterWrite", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(tokenVersionRegistry, "init");
+        return tokenVersionRegistry;
+    }
+}
@@ -0,0 +1,63 @@
+package com.adhissoncedeno.backend.benchmarks;
+
+import com.adhissoncedeno.backend.mappers.PostMapper;
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.model.entities.Post;
+import com.adhissoncedeno.backend.model.entities.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostMapperBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private final PostMapper postMapper = new PostMapper();
+
+    private List<Post> posts;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 0, 0);
+        posts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Post post = new Post();
+            ReflectionTestUtils.setField(post, "id", (long) i + 1);
+            ReflectionTestUtils.setField(post, "createdAt", createdAt.plusSeconds(i));
+            post.setTitle("Post " + i);
+            post.setContent("Content of post " + i);
+            post.setPublic(i % 2 == 0);
+            post.setUser(user);
+            posts.add(post);
+        }
+    }
+
+    @Benchmark
+    public List<PostResponseDTO> toDto() {
+        return posts.stream().map(postMapper::toDto).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,119 @@
+package com.adhissoncedeno.backend.benchmarks;
+
+import com.adhissoncedeno.backend.model.dtos.response.PostResponseDTO;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import com.adhissoncedeno.backend.services.PostSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches over an index of synthetic posts whose words follow a Zipf distribution, as natural
+ * text does: {@code rare} hits a few hundred posts, {@code common} most of them and
+ * {@code mixed} combines three terms. The index is built as at startup, from a repository that
+ * hands out the posts in keyset batches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PostSearchIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int TITLE_WORDS = 6;
+    private static final int CONTENT_WORDS = 60;
+
+    @Param({"1000000"})
+    private int posts;
+
+    private PostSearchIndex searchIndex;
+
+    private double[] cumulative;
+
+    @Setup
+    public void setUp() {
+        cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            cumulative[rank] /= sum;
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        PostRepository repository = (PostRepository) Proxy.newProxyInstance(
+                PostRepository.class.getClassLoader(), new Class<?>[]{PostRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findProjected")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    long afterId = (Long) args[2];
+                    int limit = (Integer) args[3];
+                    List<PostResponseDTO> batch = new ArrayList<>(limit);
+                    for (long id = afterId + 1; id <= Math.min(posts, afterId + limit); id++) {
+                        PostResponseDTO post = new PostResponseDTO();
+                        post.setId(id);
+                        post.setUserId(id % 1000 + 1);
+                        post.setPublic(id % 10 != 0);
+                        post.setTitle(text(random, TITLE_WORDS));
+                        post.setContent(text(random, CONTENT_WORDS));
+                        batch.add(post);
+                    }
+                    return batch;
+                });
+
+        searchIndex = new PostSearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "postRepository", repository);
+        ReflectionTestUtils.setField(searchIndex, "enabled", true);
+        searchIndex.rebuild();
+    }
+
+    private String text(SplittableRandom random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            text.append(word(rank < 0 ? -rank - 1 : rank)).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String word(int rank) {
+        return "w" + Integer.toString(rank, 36);
+    }
+
+    @Benchmark
+    public Optional<List<PostSearchIndex.Hit>> rare() {
+        return searchIndex.search(word(20_000), null, false, null, null, 21);
+    }
+
+    @Benchmark
+    public Optional<List<PostSearchIndex.Hit>> common() {
+        return searchIndex.search(word(0), null, false, null, null, 21);
+    }
+
+    @Benchmark
+    public Optional<List<PostSearchIndex.Hit>> mixed() {
+        return searchIndex.search(word(5) + " " + word(200) + " " + word(3000), 42L, false, null, null, 21);
+    }
+}
@@ -0,0 +1,132 @@
+package com.adhissoncedeno.backend.benchmarks;
+
+import com.adhissoncedeno.backend.BackendApplication;
+import com.adhissoncedeno.backend.model.dtos.request.PostFilterDTO;
+import com.adhissoncedeno.backend.model.entities.User;
+import com.adhissoncedeno.backend.model.enums.PostField;
+import com.adhissoncedeno.backend.model.enums.Role;
+import com.adhissoncedeno.backend.repositories.PostRepository;
+import com.adhissoncedeno.backend.repositories.UserRepository;
+import com.adhissoncedeno.backend.services.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tasks per second on a fixed pool of platform threads against one virtual thread per task.
+ * Every task makes one query, a login or a page of public posts, and then waits on a simulated
+ * remote call without holding a connection. The connection pool is kept small, as in
+ * VirtualThreadConcurrencyTest, so both executors also queue for connections.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadThroughputBenchmark {
+
+    private static final int TASKS = 2000;
+
+    private static final String USERNAME = "virtual-user";
+
+    @Param({"platform", "virtual"})
+    private String executor;
+
+    @Param({"200"})
+    private int platformThreads;
+
+    @Param({"20"})
+    private int waitMillis;
+
+    private ConfigurableApplicationContext context;
+
+    private ExecutorService executorService;
+
+    private CustomUserDetailsService userDetailsService;
+
+    private PostRepository postRepository;
+
+    private PostFilterDTO filter;
+
+    @Setup
+    public void setUp() {
+        // Command line arguments, so they take precedence over application.properties.
+        context = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=4",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--management.server.port=0",
+                "--logging.level.root=WARN");
+        userDetailsService = context.getBean(CustomUserDetailsService.class);
+        postRepository = context.getBean(PostRepository.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        if (userRepository.findByUsername(USERNAME).isEmpty()) {
+            User user = new User();
+            user.setUsername(USERNAME);
+            user.setPassword("unused");
+            user.setRole(Role.USER);
+            userRepository.save(user);
+        }
+        filter = new PostFilterDTO();
+        filter.setIsPublic(true);
+
+        executorService = executor.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(platformThreads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.close();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public int runTasks() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            boolean login = i % 2 == 0;
+            futures.add(executorService.submit(() -> {
+                if (login) {
+                    // Evicting forces the user query instead of a cache hit.
+                    userDetailsService.evict(USERNAME);
+                    userDetailsService.loadUserByUsername(USERNAME);
+                } else {
+                    postRepository.findProjected(filter, PostField.ALL, 0L, 20);
+                }
+                Thread.sleep(waitMillis);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return futures.size();
+    }
+}
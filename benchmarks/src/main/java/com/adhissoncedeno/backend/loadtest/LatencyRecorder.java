@@ -0,0 +1,63 @@
+package com.adhissoncedeno.backend.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and errors of one operation. Latencies are measured from the scheduled start of the
+ * request, so time spent queued behind a slow server is included (no coordinated omission).
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+
+    private int count;
+
+    private long errors;
+
+    private String lastError;
+
+    synchronized void success(long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+    }
+
+    synchronized void error(String message) {
+        errors++;
+        lastError = message;
+    }
+
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        long total = count + errors;
+        return new Summary(count, errors, total == 0 ? 0 : (double) errors / total, count / seconds,
+                millis(sorted, 0.50), millis(sorted, 0.90), millis(sorted, 0.99), millis(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1] / 1_000_000.0, lastError);
+    }
+
+    synchronized void merge(LatencyRecorder other) {
+        synchronized (other) {
+            for (int i = 0; i < other.count; i++) {
+                success(other.latencies[i]);
+            }
+            errors += other.errors;
+            if (other.lastError != null) {
+                lastError = other.lastError;
+            }
+        }
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    record Summary(long count, long errors, double errorRate, double throughput,
+                   double p50, double p90, double p99, double p999, double max, String lastError) {
+    }
+}
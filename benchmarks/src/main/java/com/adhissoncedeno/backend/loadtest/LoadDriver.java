@@ -0,0 +1,278 @@
+package com.adhissoncedeno.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load driver for the GraphQL API. Requests are started at a fixed arrival rate
+ * whatever the response times are, with the operation for each request drawn from a weighted
+ * mix. It creates its own users and posts first, so it only needs a running backend, for
+ * example with the embedded profile:
+ *
+ * <pre>
+ * java -jar backend/target/backend-0.0.1-SNAPSHOT-exec.jar --spring.profiles.active=embedded
+ * mvn -f benchmarks exec:java@load \
+ *     -Dload.args="--rate=100 --duration=60 --mix=login=5,findPublicPosts=50,myPosts=20,createPost=15,updatePostById=10"
+ * </pre>
+ *
+ * Options (all {@code --name=value}): url, rate (requests/s), duration and warmup (seconds),
+ * users, password, mix, timeout (seconds), maxInFlight and report (path of a JSON report).
+ * Requests that would exceed maxInFlight are not sent and count as errors.
+ */
+public class LoadDriver {
+
+    enum Operation {
+        LOGIN("login"),
+        FIND_PUBLIC_POSTS("findPublicPosts"),
+        MY_POSTS("myPosts"),
+        CREATE_POST("createPost"),
+        UPDATE_POST_BY_ID("updatePostById");
+
+        private final String graphQlName;
+
+        Operation(String graphQlName) {
+            this.graphQlName = graphQlName;
+        }
+
+        static Operation of(String graphQlName) {
+            for (Operation operation : values()) {
+                if (operation.graphQlName.equals(graphQlName)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation: " + graphQlName);
+        }
+    }
+
+    private static final String LOGIN = """
+            mutation login($username: String!, $password: String!) {
+                login(username: $username, password: $password) { token }
+            }
+            """;
+
+    private static final String CREATE_USER = """
+            mutation createUser($username: String!, $password: String!) {
+                createUser(userRequest: { username: $username, password: $password }) { id }
+            }
+            """;
+
+    private static final String FIND_PUBLIC_POSTS = """
+            query { findPublicPosts { id title } }
+            """;
+
+    private static final String MY_POSTS = """
+            query { myPosts { id title } }
+            """;
+
+    private static final String CREATE_POST = """
+            mutation createPost($title: String!, $content: String!) {
+                createPost(postRequest: { title: $title, content: $content, public: true }) { id }
+            }
+            """;
+
+    private static final String UPDATE_POST_BY_ID = """
+            mutation updatePostById($id: ID!, $title: String!, $content: String!) {
+                updatePostById(postRequest: { id: $id, title: $title, content: $content, public: true }) { id }
+            }
+            """;
+
+    private final Map<String, String> options;
+
+    private final GraphQlClient client;
+
+    private final List<LoadUser> users = new ArrayList<>();
+
+    private final Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+
+    private LoadDriver(Map<String, String> options) {
+        this.options = options;
+        this.client = new GraphQlClient(URI.create(option("url", "http://localhost:3000/graphql")),
+                Duration.ofSeconds(Long.parseLong(option("timeout", "10"))));
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadDriver(options).run();
+    }
+
+    private void run() throws Exception {
+        double rate = Double.parseDouble(option("rate", "50"));
+        long duration = Long.parseLong(option("duration", "60"));
+        long warmup = Long.parseLong(option("warmup", "10"));
+        int maxInFlight = Integer.parseInt(option("maxInFlight", "1000"));
+        Map<Operation, Integer> mix = parseMix(option("mix",
+                "login=5,findPublicPosts=50,myPosts=20,createPost=15,updatePostById=10"));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        setUpUsers(Integer.parseInt(option("users", "20")), option("password", "load-test-password"));
+        System.out.printf(Locale.ROOT, "Running %.1f requests/s for %d s after %d s of warmup, mix %s%n",
+                rate, duration, warmup, mix);
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long scheduled = start; scheduled < end; scheduled += interval) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = pick(mix, totalWeight);
+                boolean measured = scheduled >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        recorders.get(operation).error("Dropped: more than " + maxInFlight + " requests in flight");
+                    }
+                    continue;
+                }
+                long intendedStart = scheduled;
+                executor.execute(() -> {
+                    try {
+                        send(operation);
+                        if (measured) {
+                            recorders.get(operation).success(System.nanoTime() - intendedStart);
+                        }
+                    } catch (Exception e) {
+                        if (measured) {
+                            recorders.get(operation).error(e.getClass().getSimpleName() + ": " + e.getMessage());
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        report(duration);
+    }
+
+    private void send(Operation operation) throws IOException, InterruptedException {
+        LoadUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        String suffix = Long.toString(ThreadLocalRandom.current().nextLong(1_000_000));
+        switch (operation) {
+            case LOGIN -> client.execute(LOGIN, Map.of("username", user.username, "password", user.password), null);
+            case FIND_PUBLIC_POSTS -> client.execute(FIND_PUBLIC_POSTS, null, null);
+            case MY_POSTS -> client.execute(MY_POSTS, null, user.token);
+            case CREATE_POST -> client.execute(CREATE_POST,
+                    Map.of("title", "Load test " + suffix, "content", "Created by the load driver"), user.token);
+            case UPDATE_POST_BY_ID -> client.execute(UPDATE_POST_BY_ID,
+                    Map.of("id", user.postId, "title", "Updated " + suffix, "content", "Updated by the load driver"),
+                    user.token);
+        }
+    }
+
+    // Users are created once (an existing user only needs to log in) and each one gets a post
+    // to update.
+    private void setUpUsers(int count, String password) throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            String username = "load-user-" + i;
+            try {
+                client.execute(CREATE_USER, Map.of("username", username, "password", password), null);
+            } catch (IOException e) {
+                // Already created by an earlier run.
+            }
+            String token = client.execute(LOGIN, Map.of("username", username, "password", password), null)
+                    .path("login").path("token").asText();
+            JsonNode post = client.execute(CREATE_POST,
+                    Map.of("title", "Load test post of " + username, "content", "Updated by the load driver"), token);
+            users.add(new LoadUser(username, password, token, post.path("createPost").path("id").asText()));
+        }
+    }
+
+    private void report(long duration) throws IOException {
+        Map<String, LatencyRecorder.Summary> summaries = new LinkedHashMap<>();
+        LatencyRecorder all = new LatencyRecorder();
+        for (Map.Entry<Operation, LatencyRecorder> entry : recorders.entrySet()) {
+            summaries.put(entry.getKey().graphQlName, entry.getValue().summarize(duration));
+            all.merge(entry.getValue());
+        }
+        summaries.put("total", all.summarize(duration));
+
+        System.out.printf(Locale.ROOT, "%-16s %8s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "ok", "errors", "err%", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, LatencyRecorder.Summary> entry : summaries.entrySet()) {
+            LatencyRecorder.Summary s = entry.getValue();
+            System.out.printf(Locale.ROOT, "%-16s %8d %7d %7.2f %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), s.count(), s.errors(), s.errorRate() * 100, s.throughput(),
+                    s.p50(), s.p90(), s.p99(), s.p999(), s.max());
+            if (s.lastError() != null && !entry.getKey().equals("total")) {
+                System.out.printf("  last error: %s%n", s.lastError());
+            }
+        }
+
+        String report = options.get("report");
+        if (report != null) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("options", options);
+            json.put("operations", summaries);
+            File file = new File(report).getAbsoluteFile();
+            file.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, json);
+            System.out.println("Report written to " + report);
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.of(entry[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+        return weights;
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int totalWeight) {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private record LoadUser(String username, String password, String token, String postId) {
+    }
+}
@@ -4,6 +4,12 @@ import {HttpLink} from 'apollo-angular/http';
 import {HttpClientModule} from '@angular/common/http';
 import {ApolloLink, InMemoryCache} from '@apollo/client/core';
 import {setContext} from '@apollo/client/link/context';
+import {createPersistedQueryLink} from '@apollo/client/link/persisted-queries';
+
+async function sha256(query: string): Promise<string> {
+  const digest = await crypto.subtle.digest('SHA-256', new TextEncoder().encode(query));
+  return Array.from(new Uint8Array(digest), b => b.toString(16).padStart(2, '0')).join('');
+}
 
 @NgModule({
   imports: [HttpClientModule],
@@ -31,9 +37,14 @@ import {setContext} from '@apollo/client/link/context';
           };
         });
 
+        // Envia solo el hash de la consulta; el texto se manda cuando el servidor no lo conoce.
+        // Las consultas con hash van por GET para que el navegador pueda revalidarlas con ETag
+        const persistedQueries = createPersistedQueryLink({sha256, useGETForHashedQueries: true});
+
         const link = ApolloLink.from([
           basic,
           auth,
+          persistedQueries,
           httpLink.create({uri: 'http://localhost:3000/graphql'})
         ]);
 